@@ -0,0 +1,216 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
+
+/**
+ * Finds the first element of several locators with a single script, instead of one command
+ * for each locator. The tag name and the attributes needed to validate each element are read
+ * by the same script. Only the locators reproduced exactly in the browser are searched (see
+ * {@link LocatorPath}); the others are left to the WebDriver commands. Elements found through
+ * the driver adapter are encapsulated by a WebElementAdapter with their locator, so they are
+ * found again when their DOM reference is lost, as the elements found by findElement are.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ * @see ElementDescriptor
+ */
+public final class BatchLocator {
+
+	/** Defines attribute(element, name), which reads an attribute as WebElement.getAttribute
+	 * does: the property of the element is preferred to the attribute written in the page, so
+	 * href and src are absolute, and boolean attributes are "true" or null. Also defines
+	 * same(a, b), which compares two texts ignoring the case as String.equalsIgnoreCase does. */
+	public static final String ATTRIBUTE_FUNCTION =
+			"var BOOLEANS = ['allowfullscreen', 'async', 'autofocus', 'autoplay', 'checked', 'compact',"
+			+ "  'complete', 'controls', 'declare', 'default', 'defaultchecked', 'defaultselected', 'defer',"
+			+ "  'disabled', 'ended', 'formnovalidate', 'hidden', 'indeterminate', 'iscontenteditable',"
+			+ "  'ismap', 'itemscope', 'loop', 'multiple', 'muted', 'nohref', 'noresize', 'noshade',"
+			+ "  'novalidate', 'nowrap', 'open', 'paused', 'pubdate', 'readonly', 'required', 'reversed',"
+			+ "  'scoped', 'seamless', 'seeking', 'selected', 'truespeed', 'willvalidate'];"
+			+ "var ALIASES = {'class': 'className', 'readonly': 'readOnly'};"
+			+ "function attribute(element, name) {"
+			+ "  var lower = name.toLowerCase(), tag = element.tagName.toLowerCase(), value;"
+			+ "  if (lower === 'style') { return element.style.cssText; }"
+			+ "  if ((tag === 'a' && lower === 'href') || (tag === 'img' && lower === 'src')) {"
+			+ "    value = element.getAttribute(lower);"
+			+ "    return value ? String(element[lower]) : value;"
+			+ "  }"
+			+ "  value = element[ALIASES[lower] || name];"
+			+ "  for (var i = 0; i < BOOLEANS.length; i++) {"
+			+ "    if (BOOLEANS[i] === lower) { return (element.hasAttribute(lower) || value === true) ? 'true' : null; }"
+			+ "  }"
+			+ "  if (value === undefined || value === null || typeof value === 'object' || typeof value === 'function') {"
+			+ "    return element.getAttribute(name);"
+			+ "  }"
+			+ "  return String(value);"
+			+ "}"
+			+ "function same(a, b) {"
+			+ "  if (a.length !== b.length) { return false; }"
+			+ "  for (var i = 0; i < a.length; i++) {"
+			+ "    var x = a.charAt(i), y = b.charAt(i);"
+			+ "    if (x !== y && x.toUpperCase() !== y.toUpperCase() && x.toLowerCase() !== y.toLowerCase()) { return false; }"
+			+ "  }"
+			+ "  return true;"
+			+ "}";
+	
+	/** Finds the first element of each locator. The arguments are the list of locators as
+	 * [type, value], or null for the locators not searched, and the list of attribute names
+	 * read from each element. Returns, for each locator, the element, whether it is displayed,
+	 * its tag name and its attributes, or null if there is no element. */
+	private static final String FIND_ALL_SCRIPT = LocatorPath.FUNCTIONS
+			+ "var locators = arguments[0], names = arguments[1], result = [];"
+			+ "for (var i = 0; i < locators.length; i++) {"
+			+ "  var element = (locators[i] === null) ? null : find(document, locators[i][0], locators[i][1])[0];"
+			+ "  if (!element) { result.push(null); continue; }"
+			+ "  var displayed = !!(element.offsetWidth || element.offsetHeight || element.getClientRects().length)"
+			+ "      && window.getComputedStyle(element).visibility !== 'hidden', attributes = {};"
+			+ "  for (var n = 0; n < names[i].length; n++) {"
+			+ "    var value = attribute(element, names[i][n]);"
+			+ "    attributes[names[i][n]] = (value === undefined) ? null : value;"
+			+ "  }"
+			+ "  result.push([element, displayed, element.tagName.toLowerCase(), attributes]);"
+			+ "}"
+			+ "return result;";
+	
+	private BatchLocator() {
+		// Hidden
+	}
+	
+	/**
+	 * Finds the first element of each locator with a single script.
+	 * @param driver driver that runs the script
+	 * @param locators locators of the elements
+	 * @return for each locator, in the same order, the element found or null if there is no
+	 * 		element or the locator can't be searched by the script. All items are null if the
+	 * 		driver doesn't run scripts.
+	 */
+	public static List<ElementDescriptor> findAll(final WebDriver driver, final List<By> locators) {
+		
+		if (locators == null) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"locators"));
+		}
+		
+		List<Collection<String>> attributeNames = new ArrayList<Collection<String>>(locators.size());
+		for (int index = 0; index < locators.size(); index++) {
+			attributeNames.add(Collections.<String>emptySet());
+		}
+		return findAll(driver, locators, attributeNames);
+	}
+	
+	/**
+	 * Finds the first element of each locator with a single script, reading in the same
+	 * script the tag name and some attributes of each element.
+	 * @param driver driver that runs the script
+	 * @param locators locators of the elements
+	 * @param attributeNames for each locator, in the same order, the names of the attributes
+	 * 		read from its element
+	 * @return for each locator, in the same order, the element found or null if there is no
+	 * 		element or the locator can't be searched by the script. All items are null if the
+	 * 		driver doesn't run scripts.
+	 */
+	@SuppressWarnings("unchecked")
+	public static List<ElementDescriptor> findAll(final WebDriver driver, final List<By> locators,
+			final List<? extends Collection<String>> attributeNames) {
+		
+		if (locators == null) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"locators"));
+		}
+		if (attributeNames == null || attributeNames.size() != locators.size()) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_INVALID_PARAMETER, "attributeNames", attributeNames));
+		}
+		
+		List<ElementDescriptor> descriptors = new ArrayList<ElementDescriptor>(locators.size());
+		List<Object> steps = new ArrayList<Object>(locators.size());
+		List<List<String>> names = new ArrayList<List<String>>(locators.size());
+		boolean searched = false;
+		for (int index = 0; index < locators.size(); index++) {
+			By locator = locators.get(index);
+			List<Object> step = (locator == null) ? null : LocatorPath.step(locator, 0);
+			steps.add((step == null) ? null : step.subList(0, 2));
+			names.add(new ArrayList<String>(attributeNames.get(index)));
+			searched |= (step != null);
+			descriptors.add(null);
+		}
+		
+		if (!searched || !(driver instanceof JavascriptExecutor)) {
+			return descriptors;
+		}
+		
+		List<List<Object>> found = (List<List<Object>>) ((JavascriptExecutor) driver).executeScript(FIND_ALL_SCRIPT, steps, names);
+		for (int index = 0; index < locators.size(); index++) {
+			List<Object> item = found.get(index);
+			if (item != null) {
+				WebElement element = (WebElement) item.get(0);
+				element = adapt(driver, element, locators.get(index));
+				descriptors.set(index, new ElementDescriptor(element, Boolean.TRUE.equals(item.get(1)),
+						(String) item.get(2), toStrings((Map<String, Object>) item.get(3))));
+			}
+		}
+		return descriptors;
+	}
+	
+	/**
+	 * Encapsulates an element found by a script, as if it was found by findElement of the
+	 * context with the locator, so it's found again by the locator when its DOM reference is
+	 * lost. Only the contexts created by the driver adapter can find the element again; with
+	 * the others, the element is returned as it is.
+	 * @param context driver or element from which the locator matches the element
+	 * @param element element found by the script
+	 * @param locator locator, relative to the context, that matches the element first
+	 * @return element encapsulated by a WebElementAdapter, or the element itself
+	 */
+	public static WebElement adapt(final SearchContext context, final WebElement element, final By locator) {
+		
+		if (element == null) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"element"));
+		}
+		
+		if (context instanceof WebElementAdapter) {
+			return new WebElementAdapter(element, (WebElementAdapter) context, locator);
+		}
+		if (context instanceof WebDriverAdapter) {
+			return ((WebDriverAdapter) context).adapt(element, locator);
+		}
+		return element;
+	}
+	
+	private static Map<String, String> toStrings(final Map<String, Object> values) {
+		Map<String, String> strings = new HashMap<String, String>(values.size() * 4 / 3 + 1);
+		for (Entry<String, Object> value : values.entrySet()) {
+			strings.put(value.getKey(), (value.getValue() == null) ? null : value.getValue().toString());
+		}
+		return strings;
+	}
+}
@@ -0,0 +1,139 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium;
+
+import java.util.concurrent.TimeUnit;
+
+import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
+
+/**
+ * Instant when an operation must finish. The waits of the framework activate their deadline in
+ * the thread that waits, and the waits started inside them, like the recovery of an element
+ * that lost its DOM reference while a condition is evaluated, never wait beyond it. So a whole
+ * operation respects a single budget, however many waits it nests. An operation of the test
+ * can also activate its own deadline to bound all waits inside it:
+ * <pre>
+ * Deadline previous = Deadline.after(10, TimeUnit.SECONDS).activate();
+ * try {
+ *     ...
+ * } finally {
+ *     Deadline.restore(previous);
+ * }
+ * </pre>
+ * The implicit wait of the driver is outside of the budget: the WebDriver searches sent inside
+ * a deadline, like the lookups of {@code loadByXPath} and of the list variant of
+ * {@code loadByAttribute}, may still wait up to it, 1 second for the drivers created by
+ * {@link SeleniumController}, after the deadline expired. Changing it for each search would
+ * cost a command more.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ * @see SeleniumWait
+ */
+public final class Deadline {
+
+	/** Deadline active in each thread */
+	private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<Deadline>();
+	
+	/** Instant of the deadline, as given by System.nanoTime() */
+	private final long expiration;
+	
+	private Deadline(final long expiration) {
+		this.expiration = expiration;
+	}
+	
+	/**
+	 * Creates a deadline that expires after a timeout, counted from now.
+	 * @param timeout duration of the timeout
+	 * @param unit unit of the timeout
+	 * @return the deadline
+	 */
+	public static Deadline after(final long timeout, final TimeUnit unit) {
+		
+		if (timeout < 0) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_INVALID_PARAMETER, "timeout", timeout));
+		}
+		if (unit == null) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"unit"));
+		}
+		
+		return new Deadline(System.nanoTime() + unit.toNanos(timeout));
+	}
+	
+	/**
+	 * Creates the deadline of an operation nested in the deadline active in the thread: the
+	 * operation expires after the timeout, but never after the deadline that contains it.
+	 * @param timeout duration of the timeout
+	 * @param unit unit of the timeout
+	 * @return the deadline of the operation
+	 */
+	public static Deadline within(final long timeout, final TimeUnit unit) {
+		
+		Deadline deadline = after(timeout, unit);
+		Deadline outer = CURRENT.get();
+		
+		return (outer != null && outer.expiration - deadline.expiration < 0) ? outer : deadline;
+	}
+	
+	/**
+	 * @return the deadline active in the thread, or null if there isn't one
+	 */
+	public static Deadline current() {
+		return CURRENT.get();
+	}
+	
+	/**
+	 * Makes this deadline the active one in the thread, until {@link #restore(Deadline)} is
+	 * called with the deadline returned.
+	 * @return the deadline that was active before, or null
+	 */
+	public Deadline activate() {
+		Deadline previous = CURRENT.get();
+		CURRENT.set(this);
+		return previous;
+	}
+	
+	/**
+	 * Makes active again the deadline that was active before {@link #activate()}.
+	 * @param previous deadline returned by activate, or null
+	 */
+	public static void restore(final Deadline previous) {
+		if (previous == null) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set(previous);
+		}
+	}
+	
+	/**
+	 * @param unit unit of the result
+	 * @return time left until the deadline, or zero if it already expired
+	 */
+	public long remaining(final TimeUnit unit) {
+		long remaining = this.expiration - System.nanoTime();
+		return (remaining <= 0) ? 0 : unit.convert(remaining, TimeUnit.NANOSECONDS);
+	}
+	
+	/**
+	 * @return true if the deadline already expired
+	 */
+	public boolean isExpired() {
+		return this.expiration - System.nanoTime() <= 0;
+	}
+}
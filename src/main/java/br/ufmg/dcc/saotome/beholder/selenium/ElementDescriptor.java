@@ -0,0 +1,106 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.openqa.selenium.WebElement;
+
+import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
+
+/**
+ * Element found by a script together with the information read about it in the same
+ * command, so the element can be checked without asking anything else to the browser.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ * @see BatchLocator
+ */
+public final class ElementDescriptor {
+
+	private final WebElement element;
+	private final boolean displayed;
+	private final String tagName;
+	/** Attributes read, by name; the value is null if the element doesn't have the attribute */
+	private final Map<String, String> attributes;
+	
+	/**
+	 * @param element element found
+	 * @param displayed true if the element has a box in the page
+	 * @param tagName tag name of the element, in lower case
+	 * @param attributes attributes read, by name, as WebElement.getAttribute reads them
+	 */
+	ElementDescriptor(final WebElement element, final boolean displayed, final String tagName,
+			final Map<String, String> attributes) {
+		
+		if (element == null) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"element"));
+		}
+		
+		this.element = element;
+		this.displayed = displayed;
+		this.tagName = tagName;
+		this.attributes = Collections.unmodifiableMap(attributes);
+	}
+	
+	/**
+	 * @return the element found
+	 */
+	public WebElement getElement() {
+		return this.element;
+	}
+	
+	/**
+	 * @return true if the element had a box in the page when it was found
+	 */
+	public boolean isDisplayed() {
+		return this.displayed;
+	}
+	
+	/**
+	 * @return tag name of the element, in lower case
+	 */
+	public String getTagName() {
+		return this.tagName;
+	}
+	
+	/**
+	 * @return value of the type attribute, or null if it was not read or the element doesn't have it
+	 */
+	public String getType() {
+		return this.attributes.get("type");
+	}
+	
+	/**
+	 * @param name name of the attribute
+	 * @return true if the attribute was read with the element, even if the element doesn't have it
+	 */
+	public boolean hasAttribute(final String name) {
+		return this.attributes.containsKey(name);
+	}
+	
+	/**
+	 * @param name name of the attribute
+	 * @return value of the attribute, or null if it was not read or the element doesn't have it
+	 */
+	public String getAttribute(final String name) {
+		return this.attributes.get(name);
+	}
+}
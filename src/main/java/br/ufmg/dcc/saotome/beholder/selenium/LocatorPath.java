@@ -0,0 +1,176 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Path of locators from the document to an element. Each step has the locator and the position
+ * of the element in the elements matched by it. When the DOM references of an element and
+ * its ancestors are lost, the whole path is found again by a single script, instead of one
+ * command for each ancestor. Only the locators whose semantics can be reproduced exactly in the
+ * browser are accepted: id, name, class name, tag name, CSS selector, XPath and the locators
+ * that implement {@link ScriptableLocator}. Paths with other locators must be found again by
+ * the WebDriver commands.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ * @see WebElementAdapter
+ */
+final class LocatorPath {
+
+	/** Functions shared by the scripts that find elements by locators. find(context, type,
+	 * value) returns the elements matched by a locator, in the order of the document. */
+	static final String FUNCTIONS = BatchLocator.ATTRIBUTE_FUNCTION
+			+ "function filter(list, test) {"
+			+ "  var result = [];"
+			+ "  for (var i = 0; i < list.length; i++) { if (test(list[i])) { result.push(list[i]); } }"
+			+ "  return result;"
+			+ "}"
+			+ "function find(context, type, value) {"
+			+ "  switch (type) {"
+			+ "    case 'xpath':"
+			+ "      var snapshot = document.evaluate(value, context, null, 7, null), result = [];"
+			+ "      for (var i = 0; i < snapshot.snapshotLength; i++) { result.push(snapshot.snapshotItem(i)); }"
+			+ "      return result;"
+			+ "    case 'cssSelector': return context.querySelectorAll(value);"
+			+ "    case 'tagName': return context.getElementsByTagName(value);"
+			+ "    case 'className': return context.getElementsByClassName(value);"
+			+ "    case 'id': return filter(context.querySelectorAll('[id]'), function(e) { return e.id === value; });"
+			+ "    case 'name': return filter(context.querySelectorAll('[name]'), function(e) { return e.getAttribute('name') === value; });"
+			+ "    case 'attribute': return filter(context.getElementsByTagName(value[0]), function(e) {"
+			+ "      var current = attribute(e, value[1]);"
+			+ "      return current !== null && current !== undefined && same(String(current), value[2]);"
+			+ "    });"
+			+ "  }"
+			+ "  return [];"
+			+ "}";
+	
+	/** Finds the elements of the path. Returns the html element followed by one element
+	 * for each step, or null if a step has no element. */
+	private static final String RELOCATE_SCRIPT = FUNCTIONS
+			+ "var steps = arguments[0], context = document, found = [document.documentElement];"
+			+ "for (var s = 0; s < steps.length; s++) {"
+			+ "  var element = find(context, steps[s][0], steps[s][1])[steps[s][2]];"
+			+ "  if (!element) { return null; }"
+			+ "  found.push(element);"
+			+ "  context = element;"
+			+ "}"
+			+ "return found;";
+	
+	/** Locator types reproduced by the script, as written by By.toString() */
+	private static final List<String> SCRIPTABLE_TYPES = Arrays.asList(
+			"id", "name", "className", "tagName", "cssSelector", "xpath");
+	
+	/** Steps of the path, from the document to the element */
+	private final List<Object> steps;
+	
+	private LocatorPath(final List<Object> steps) {
+		this.steps = steps;
+	}
+	
+	/**
+	 * Creates the path of an element.
+	 * @param adapter element
+	 * @return the path, or null if one of the locators can't be reproduced by the script or
+	 * 		the position of one of the elements is unknown
+	 */
+	static LocatorPath of(final WebElementAdapter adapter) {
+		
+		List<Object> steps = new ArrayList<Object>();
+		
+		for (WebElementAdapter node = adapter; node != null && !node.isDocumentElement(); node = node.getParent()) {
+			if (node.getIndex() < 0) {
+				return null;
+			}
+			List<Object> step = step(node.getLocator(), node.getIndex());
+			if (step == null) {
+				return null;
+			}
+			steps.add(step);
+		}
+		
+		Collections.reverse(steps);
+		return new LocatorPath(Collections.unmodifiableList(steps));
+	}
+	
+	/**
+	 * Converts a locator to a step of the script.
+	 * @param locator locator of the step
+	 * @param index position of the element in the elements matched by the locator
+	 * @return the type, value and index of the step, or null if the locator is not reproduced by the script
+	 */
+	static List<Object> step(final By locator, final int index) {
+		
+		if (locator instanceof ScriptableLocator) {
+			ScriptableLocator scriptable = (ScriptableLocator) locator;
+			return Arrays.<Object>asList(scriptable.getScriptType(), scriptable.getScriptValue(), index);
+		}
+		
+		String description = locator.toString();
+		int separator = description.indexOf(": ");
+		
+		if (!description.startsWith("By.") || separator < 0) {
+			return null;
+		}
+		
+		String type = description.substring("By.".length(), separator);
+		if (!SCRIPTABLE_TYPES.contains(type)) {
+			return null;
+		}
+		
+		return Arrays.<Object>asList(type, description.substring(separator + 2), index);
+	}
+	
+	/**
+	 * @return number of steps, one for each element after the html element
+	 */
+	int size() {
+		return this.steps.size();
+	}
+	
+	/**
+	 * Finds all elements of the path with a single script.
+	 * @param driver driver that runs the script
+	 * @return the html element followed by the elements of each step, or null if the
+	 * 		driver doesn't run scripts or an element of the path is not in the page
+	 */
+	@SuppressWarnings("unchecked")
+	List<WebElement> relocate(final WebDriver driver) {
+		
+		if (!(driver instanceof JavascriptExecutor)) {
+			return null;
+		}
+		
+		Object found = ((JavascriptExecutor) driver).executeScript(RELOCATE_SCRIPT, this.steps);
+		if (!(found instanceof List) || ((List<Object>) found).size() != this.steps.size() + 1) {
+			return null;
+		}
+		
+		return (List<WebElement>) found;
+	}
+}
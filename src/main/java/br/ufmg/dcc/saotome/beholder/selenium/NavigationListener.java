@@ -0,0 +1,36 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium;
+
+/**
+ * Listener notified when the navigation epoch of a driver changes. It's called in the thread that
+ * caused the navigation, so it must be short, like discarding a cache.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ * @see NavigationTracker
+ */
+public interface NavigationListener {
+
+	/**
+	 * Called after a new navigation epoch starts.
+	 * @param epoch the new navigation epoch
+	 */
+	void onNavigation(long epoch);
+}
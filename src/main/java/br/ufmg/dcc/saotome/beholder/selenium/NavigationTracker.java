@@ -0,0 +1,59 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium;
+
+/**
+ * Drivers that implement this interface count the navigations done in the browser. The count,
+ * called navigation epoch, changes whenever the document in use may have been replaced: when a
+ * page is opened, when the history is navigated, when the frame or window in use changes and
+ * when the driver detects that the document was replaced. Caches of elements and attributes can
+ * keep the epoch in which they were filled and compare it later, or subscribe a listener, to
+ * know when they must be discarded without asking anything to the browser.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ * @see NavigationListener
+ */
+public interface NavigationTracker {
+
+	/**
+	 * Returns the current navigation epoch. Epochs only grow.
+	 * @return the navigation epoch
+	 */
+	long getNavigationEpoch();
+	
+	/**
+	 * Asks the browser for the identity of the document in use, starting a new epoch if the
+	 * document is not the one seen in the last probe. It costs one command to the browser.
+	 * @return the navigation epoch after the probe
+	 */
+	long probeDocument();
+	
+	/**
+	 * Subscribes a listener to be notified whenever a new epoch starts.
+	 * @param listener navigation listener
+	 */
+	void addNavigationListener(NavigationListener listener);
+	
+	/**
+	 * Cancels the subscription of a listener.
+	 * @param listener navigation listener
+	 */
+	void removeNavigationListener(NavigationListener listener);
+}
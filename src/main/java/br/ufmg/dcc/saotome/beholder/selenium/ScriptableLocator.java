@@ -0,0 +1,40 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium;
+
+/**
+ * Locator that the scripts of Beholder can reproduce in the browser. Elements found by these
+ * locators are searched together by {@link BatchLocator} and, when their DOM reference is
+ * lost, found again with their ancestors by a single script.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ */
+public interface ScriptableLocator {
+
+	/**
+	 * @return type of the locator, as known by the find function of the scripts
+	 */
+	String getScriptType();
+	
+	/**
+	 * @return value of the locator passed to the find function of the scripts
+	 */
+	Object getScriptValue();
+}
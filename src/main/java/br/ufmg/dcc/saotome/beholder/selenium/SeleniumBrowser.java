@@ -25,7 +25,6 @@ import org.openqa.selenium.By;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.support.ui.ExpectedCondition;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import br.ufmg.dcc.saotome.beholder.Browser;
 import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
@@ -38,27 +37,49 @@ import br.ufmg.dcc.saotome.beholder.selenium.ui.SeleniumComponent;
  */
 public class SeleniumBrowser implements Browser {
 
+	/** Browser driver of the session, or null to use the driver of the current thread. */
+	private final WebDriver driver;
+	
+	/** Creates a browser that works with the driver of the thread which calls its methods. */
+	public SeleniumBrowser() {
+		this(null);
+	}
+	
+	/**
+	 * Creates a browser that always works with the driver informed.
+	 * @param driver Browser driver
+	 */
+	public SeleniumBrowser(final WebDriver driver) {
+		this.driver = driver;
+	}
+	
+	/**
+	 * Returns the driver used by the browser.
+	 * @return Browser driver
+	 */
+	private WebDriver getDriver() {
+		return (this.driver == null) ? SeleniumController.getDriver() : this.driver;
+	}
+
 	public void open(final URL url) {
 		if (url == null) {
 			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"url"));
 		}
-		SeleniumController.getDriver().get(url.toString());
+		getDriver().get(url.toString());
 	}
 
 	@Override
 	public boolean isTextPresent(final String text) {
 
 		try {
-			WebDriverWait wait = new WebDriverWait(SeleniumController.getDriver(), SeleniumComponent.TIMEOUT);
-
 			ExpectedCondition<Boolean> resultsAreDisplayed = new ExpectedCondition<Boolean>() {
 				public Boolean apply(WebDriver arg0) {
 					String expression = text.toLowerCase();
-					String pageText = SeleniumController.getDriver().findElement(By.tagName("body")).getText().toLowerCase();
+					String pageText = getDriver().findElement(By.tagName("body")).getText().toLowerCase();
 					return pageText	.contains(expression);
 				}
 			};
-			wait.until(resultsAreDisplayed);
+			SeleniumWait.until(getDriver(), SeleniumComponent.getDefaultTimeout(), "SeleniumBrowser.isTextPresent", resultsAreDisplayed);
 			return true;
 		} catch (TimeoutException toe) {
 			return false;
@@ -74,17 +95,17 @@ public class SeleniumBrowser implements Browser {
 
 		@Override
 		public void confirm() {
-			SeleniumController.getDriver().switchTo().alert().accept();
+			getDriver().switchTo().alert().accept();
 		}
 
 		@Override
 		public void cancel() {
-			SeleniumController.getDriver().switchTo().alert().dismiss();
+			getDriver().switchTo().alert().dismiss();
 		}
 
 		@Override
 		public String getText() {
-			return SeleniumController.getDriver().switchTo().alert().getText();		
+			return getDriver().switchTo().alert().getText();		
 		}
 		
 	}
@@ -0,0 +1,329 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
+import br.ufmg.dcc.saotome.beholder.selenium.message.WarnMessages;
+
+/**
+ * Pool of browsers started in background. When the suite starts, the pool launches its browsers
+ * concurrently and hands them out as soon as each one is ready, so the first test doesn't wait
+ * for all of them. Whenever the number of idle browsers drops below the minimum, new ones are
+ * launched behind the scenes. The pool is configured by the suite parameters:
+ * <ul>
+ * <li><b>poolSize</b>: browsers launched when the suite starts and maximum of concurrent launches;</li>
+ * <li><b>poolMinIdle</b>: idle browsers the pool tries to keep ready, up to poolMaxIdle (default 1);</li>
+ * <li><b>poolMaxIdle</b>: idle browsers kept when they're given back (default poolSize);</li>
+ * <li><b>recycle</b>: if true, browsers given back are reset and reused instead of closed.
+ * Browsers are given back at the end of each &lt;test&gt; block, not between test classes,
+ * unless the tests call {@link SeleniumController#recycleSession()} themselves.</li>
+ * </ul>
+ * A recycled browser has its cookies, local and session storage cleared, the extra windows
+ * closed and the page changed to about:blank. WebDriver only reaches the cookies and storages
+ * of the page open when the browser is given back, so the ones of other origins visited by the
+ * tests are kept; suites whose tests depend on a clean state of several origins shouldn't
+ * recycle browsers. If the reset fails or the browser doesn't answer the health probe
+ * afterwards, the browser is thrown away and a new one is launched.
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ * @see SeleniumController
+ */
+final class SeleniumBrowserPool {
+
+	static final String POOL_SIZE = "poolSize";
+	static final String POOL_MIN_IDLE = "poolMinIdle";
+	static final String POOL_MAX_IDLE = "poolMaxIdle";
+	static final String RECYCLE = "recycle";
+	
+	/** Page loaded in recycled browsers */
+	private static final String BLANK_PAGE = "about:blank";
+	/** Clears the storages of the page's origin. Pages like about:blank may deny the access. */
+	private static final String CLEAR_STORAGE_SCRIPT = 
+			"try { window.localStorage.clear(); } catch (e) {}" +
+			"try { window.sessionStorage.clear(); } catch (e) {}";
+	/** Script used as health probe */
+	private static final String PROBE_SCRIPT = "return document.readyState;";
+	
+	/** Time between checks of a thread waiting for a browser */
+	private static final long POLL_INTERVAL = 500; // milliseconds
+	
+	private final Logger logger = LogManager.getLogger("general");
+	
+	private final Map<String,String> parameters;
+	private final int minIdle;
+	private final int maxIdle;
+	private final boolean recycle;
+	
+	/** Browsers ready to be used */
+	private final BlockingQueue<WebDriver> idle = new LinkedBlockingQueue<WebDriver>();
+	/** Browsers being launched */
+	private final AtomicInteger launching = new AtomicInteger();
+	/** Threads that launch the browsers */
+	private final ExecutorService launcher;
+	
+	/** Last error launching a browser */
+	private volatile RuntimeException lastFailure;
+	private volatile boolean closed = false;
+	
+	/**
+	 * Creates the pool and starts launching its browsers in background.
+	 * @param parameters suite parameters
+	 */
+	SeleniumBrowserPool(final Map<String,String> parameters) {
+		
+		int size = intParameter(parameters, POOL_SIZE, 1);
+		
+		if (size < 1) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_INVALID_PARAMETER, POOL_SIZE, size));
+		}
+		
+		this.parameters = parameters;
+		this.maxIdle = intParameter(parameters, POOL_MAX_IDLE, size);
+		this.minIdle = intParameter(parameters, POOL_MIN_IDLE, Math.min(1, this.maxIdle));
+		
+		if (this.maxIdle < 0) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_INVALID_PARAMETER, POOL_MAX_IDLE, this.maxIdle));
+		}
+		if (this.minIdle < 0 || this.minIdle > this.maxIdle) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_INVALID_PARAMETER, POOL_MIN_IDLE, this.minIdle));
+		}
+		this.recycle = isRecycleEnabled(parameters);
+		this.launcher = Executors.newFixedThreadPool(size, new ThreadFactory() {
+			
+			private final AtomicInteger count = new AtomicInteger();
+			
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "beholder-browser-launcher-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		
+		for (int count = 0; count < size; count++) {
+			launch();
+		}
+	}
+	
+	/**
+	 * Indicates if the suite parameters ask for a browser pool.
+	 * @param parameters suite parameters
+	 * @return true if the parameter poolSize was informed or the browsers must be recycled
+	 */
+	static boolean isEnabled(final Map<String,String> parameters) {
+		return parameters.get(POOL_SIZE) != null || isRecycleEnabled(parameters);
+	}
+	
+	/**
+	 * Indicates if the suite parameters ask to recycle the browsers.
+	 * @param parameters suite parameters
+	 * @return true if the parameter recycle is true
+	 */
+	static boolean isRecycleEnabled(final Map<String,String> parameters) {
+		return Boolean.parseBoolean(parameters.get(RECYCLE));
+	}
+	
+	/**
+	 * Takes a browser from the pool, waiting until one is ready if none is idle.
+	 * @return Browser driver
+	 * @throws WebDriverException if the browsers cannot be launched
+	 */
+	WebDriver acquire() {
+		
+		try {
+			WebDriver driver = this.idle.poll();
+			
+			while (driver == null) {
+				
+				if (this.closed) {
+					throw new IllegalStateException(ErrorMessages.ERROR_POOL_CLOSED);
+				}
+				
+				if (this.launching.get() == 0) {
+					if (this.lastFailure != null) {
+						throw this.lastFailure;
+					}
+					launch(); // nothing ready or coming, so the caller launches one
+				}
+				driver = this.idle.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+			}
+			refill();
+			return driver;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new WebDriverException(e);
+		}
+	}
+	
+	/**
+	 * Gives a browser back to the pool. If the pool doesn't recycle browsers, there are enough
+	 * idle browsers or the browser cannot be reset, it's closed.
+	 * @param driver Browser driver
+	 */
+	void release(final WebDriver driver) {
+		
+		boolean reused = this.recycle && !this.closed && this.idle.size() < this.maxIdle 
+				&& reset(driver) && this.idle.offer(driver);
+		
+		if (!reused) {
+			quit(driver);
+		}
+	}
+	
+	/**
+	 * Cleans the state left by the tests in a browser: the extra windows are closed, the
+	 * storages and cookies are cleared and the browser goes to a blank page. A health probe
+	 * confirms the browser still answers after the reset.
+	 * @param driver Browser driver
+	 * @return true if the browser is clean and alive
+	 */
+	private boolean reset(final WebDriver driver) {
+		
+		try {
+			String mainWindow = driver.getWindowHandle();
+			
+			for (String window : driver.getWindowHandles()) {
+				if (!window.equals(mainWindow)) {
+					driver.switchTo().window(window);
+					driver.close();
+				}
+			}
+			driver.switchTo().window(mainWindow);
+			driver.switchTo().defaultContent();
+			
+			// The storages and cookies belong to the current page, so they're cleared before leaving it.
+			// The ones of other origins can't be reached from here and are kept.
+			if (driver instanceof JavascriptExecutor) {
+				((JavascriptExecutor) driver).executeScript(CLEAR_STORAGE_SCRIPT);
+			}
+			driver.manage().deleteAllCookies();
+			driver.get(BLANK_PAGE);
+			
+			return isHealthy(driver);
+		} catch (WebDriverException e) {
+			this.logger.warn(WarnMessages.WARN_BROWSER_RESET_FAILED, e);
+			return false;
+		}
+	}
+	
+	/**
+	 * Health probe of a recycled browser.
+	 * @param driver Browser driver
+	 * @return true if the browser has only one window and answers to commands
+	 */
+	private boolean isHealthy(final WebDriver driver) {
+		
+		if (driver.getWindowHandles().size() != 1) {
+			return false;
+		}
+		if (driver instanceof JavascriptExecutor) {
+			return ((JavascriptExecutor) driver).executeScript(PROBE_SCRIPT) != null;
+		}
+		return driver.getCurrentUrl() != null;
+	}
+	
+	/** Stops launching browsers and closes the idle ones. */
+	void close() {
+		this.closed = true;
+		this.launcher.shutdownNow();
+		
+		List<WebDriver> drivers = new ArrayList<WebDriver>();
+		this.idle.drainTo(drivers);
+		for (WebDriver driver : drivers) {
+			quit(driver);
+		}
+	}
+	
+	/** Launches browsers until the idle ones plus the ones being launched reach the minimum. */
+	private void refill() {
+		while (!this.closed && this.idle.size() + this.launching.get() < this.minIdle) {
+			launch();
+		}
+	}
+	
+	/** Launches a browser in background. */
+	private void launch() {
+		
+		this.launching.incrementAndGet();
+		
+		try {
+			this.launcher.execute(new Runnable() {
+				
+				@Override
+				public void run() {
+					try {
+						WebDriver driver = SeleniumController.createDriver(parameters);
+						lastFailure = null;
+						if (closed || !idle.offer(driver)) {
+							quit(driver);
+						}
+					} catch (RuntimeException e) {
+						lastFailure = e;
+						logger.error(ErrorMessages.ERROR_BROWSER_LAUNCH, e);
+					} finally {
+						launching.decrementAndGet();
+					}
+				}
+			});
+		} catch (RuntimeException e) { // the pool was closed
+			this.launching.decrementAndGet();
+			throw e;
+		}
+	}
+	
+	private void quit(final WebDriver driver) {
+		try {
+			driver.quit();
+		} catch (WebDriverException e) {
+			this.logger.error(ErrorMessages.ERROR_BROWSER_QUIT, e);
+		}
+	}
+	
+	private static int intParameter(final Map<String,String> parameters, final String name, final int defaultValue) {
+		
+		String value = parameters.get(name);
+		
+		if (value == null) {
+			return defaultValue;
+		}
+		
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_INVALID_PARAMETER, name, value), e);
+		}
+	}
+}
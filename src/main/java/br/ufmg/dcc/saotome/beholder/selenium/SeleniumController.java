@@ -20,6 +20,7 @@
 package br.ufmg.dcc.saotome.beholder.selenium;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -34,15 +35,20 @@ import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxProfile;
 import org.openqa.selenium.htmlunit.HtmlUnitDriver;
 import org.openqa.selenium.ie.InternetExplorerDriver;
+import org.testng.ITestContext;
+import org.testng.ITestResult;
+import org.testng.Reporter;
 import org.testng.annotations.AfterSuite;
+import org.testng.annotations.AfterTest;
 import org.testng.annotations.BeforeSuite;
 import org.testng.annotations.Parameters;
 
 import br.ufmg.dcc.saotome.beholder.Browser;
 import br.ufmg.dcc.saotome.beholder.builder.Builder;
-import br.ufmg.dcc.saotome.beholder.selenium.builder.SeleniumBuilder;
 import br.ufmg.dcc.saotome.beholder.selenium.listener.ListenerGateway;
 import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
+import br.ufmg.dcc.saotome.beholder.selenium.metrics.SeleniumMetrics;
+import br.ufmg.dcc.saotome.beholder.selenium.ui.SeleniumComponent;
 
 /**
  * This class is the basic structure to start a test using the TestNG framework and Selenium-Webdriver.
@@ -53,6 +59,7 @@ import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
  * that can be found in this link: http://code.google.com/p/chromedriver/downloads/list. To use the chrome 
  * driver, the system environment variable CHROME_DRIVER_BIN must be set. If the chrome application
  * is not in the environment PATH, the CHROME_BIN can be used to pass the binary path of the chrome browser.
+ * Each thread works with its own browser session, so suites can be executed with TestNG parallel modes.
  * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
  */
 public final class SeleniumController {
@@ -72,18 +79,36 @@ public final class SeleniumController {
 	/* Hidden Constructor */
 	private SeleniumController() {}
 	
-	/** Browser driver that contains the application component search. */
-	private static WebDriver driver;
-	/** This object generates all usable components of Beholder. */
-	private static Builder builder;	
-	/** This object represents a browser functionalities */ 
-	private static Browser browser;
+	/** Timeout, in seconds, of the asynchronous scripts of the drivers created by the controller.
+	 * Components that need a longer one set it while the script runs and restore this value. */
+	public static final long SCRIPT_TIMEOUT = 30;// seconds
 	
-	private static Map<String,String> parametersMap;
+	/** Parameter with the file where the metrics are written when the suite finishes */
+	private static final String METRICS_FILE = "metricsFile";
+	
+	/** Parameter with the maximum wait, in seconds, of the components of the suite */
+	private static final String TIMEOUT = "timeout";
+	
+	private static volatile Map<String,String> parametersMap;
+	
+	/** Browsers started in background, when the suite asks for a pool */
+	private static volatile SeleniumBrowserPool pool;
 		
 	/**
 	 * This method starts the selenium remote control using the parameters
-	 * informed by testng.xml file
+	 * informed by testng.xml file. The browser started is bound to the thread
+	 * that runs the suite configuration. Other threads, like the TestNG workers
+	 * of a parallel suite, start their own browser the first time they ask for
+	 * the driver, the builder or the browser. If the parameter poolSize is informed, the
+	 * browsers are launched concurrently in background and the sessions take them from
+	 * the pool, so the suite doesn't wait for a browser before starting. If the parameter
+	 * recycle is true, the browsers are reset and reused by the next sessions instead of
+	 * being closed, as done at the end of each &lt;test&gt; block with the sessions the block
+	 * opened; test classes of the same block share the browser unless they call
+	 * {@link #recycleSession()}. The reset only clears
+	 * the cookies and storages of the page open at the end, not the ones of other origins
+	 * visited. The parameter timeout changes
+	 * the maximum wait, in seconds, of the components that don't have a timeout of their own.
 	 * @param parameters
 	 * @throws Exception
 	 */
@@ -95,105 +120,261 @@ public final class SeleniumController {
 		
 		parametersInfo();
 		
-		String 	browserName = parametersMap.get("browser"),
-				profile = parametersMap.get("profile"),
-				chromeDriverBin = parametersMap.get("chromeDriverBin"),
-				ieDriverBin = parametersMap.get("ieDriverBin"),
-				chromeBin = parametersMap.get("chromeBin"),
-				languages = parametersMap.get("languages");
-				
-		if(browserName == null){
+		if(parametersMap.get("browser") == null){
 			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"browser"));
 		}
 		
-		if(driver == null) {
-			if(BrowsersList.FIREFOX.equalsString(browserName)){
-				FirefoxProfile fp = new FirefoxProfile();
-				fp.setPreference("dom.max_script_run_time", 0);
-				fp.setPreference("dom.max_chrome_script_run_time", 0);
-				if(profile != null && !profile.isEmpty()){
-					fp.setPreference("webdriver.firefox.profile", profile);
-				}
-				if(languages != null && !languages.isEmpty()){
-					fp.setPreference("intl.accept_languages", languages);
-				}
-				driver = new WebDriverAdapter(new FirefoxDriver(fp));
-			}
-			else if(BrowsersList.CHROME.equalsString(browserName)) {
-				
-				if(chromeBin == null){
-					throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"chromeBin"));
-				}
-				
-				
-				// Optional, if not specified, WebDriver will search your path for chromedriver 
-				// in the system environment. (OBS: To evade problems, webdriver.chrome.driver MUST have a value.
-				if(System.getProperty("webdriver.chrome.driver") == null || System.getProperty("webdriver.chrome.driver").isEmpty()){
-					if(chromeDriverBin == null){
-						throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"chromeDriverBin"));
-					}
-					System.setProperty("webdriver.chrome.driver", chromeDriverBin);	
-				}
-				
-				ChromeOptions co = new ChromeOptions();
-				// Get the chrome binary directory path from System Envionment.
-				co.setBinary(new File(chromeBin));
-				driver = new WebDriverAdapter(new ChromeDriver(co));
-			}
-			else if(BrowsersList.IE.equalsString(browserName))
-			{
-				if(ieDriverBin == null){
-						throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"ieDriverBin"));
-				}
-				System.setProperty("webdriver.ie.driver", ieDriverBin);	
-				driver = new WebDriverAdapter(new InternetExplorerDriver());
-			}
-			else if(BrowsersList.HTML_UNIT.equalsString(browserName)){
-				driver = new HtmlUnitDriver(true);
-			}
-			else {
-				throw new IllegalArgumentException(ErrorMessages.ERROR_BROWSER_INVALID);
+		String timeout = parametersMap.get(TIMEOUT);
+		if(timeout != null && !timeout.isEmpty()){
+			try {
+				SeleniumComponent.setDefaultTimeout(Long.parseLong(timeout.trim()));
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_INVALID_PARAMETER, TIMEOUT, timeout), e);
 			}
 		}
-		/* Sets to all driver methods the global timeout of 1 second. 
-		 * To tests, Timeouts must be specified on the components.
-		 */
-		SeleniumController.driver.manage().timeouts().implicitlyWait(1, TimeUnit.SECONDS);
-		SeleniumController.builder = new SeleniumBuilder(driver);
-		SeleniumController.browser = new SeleniumBrowser();
-		ListenerGateway.setWebDriver(driver);
+		
 		ListenerGateway.setParameters(parametersMap);
+		
+		if(SeleniumBrowserPool.isEnabled(parametersMap)) {
+			if(pool == null) {
+				pool = new SeleniumBrowserPool(parametersMap);
+			}
+		} else if(SeleniumSessionRegistry.current() == null) {
+			openSession();
+		}
 	}
 	
-	/** Close the driver. It'll close the browsers window and stop the selenium RC.*/
+	/** Close the drivers. It'll close the browsers windows of all sessions and stop the selenium RC.
+	 * If the parameter metricsFile is informed, the metrics of the commands are written in it.*/
 	@AfterSuite(alwaysRun=true)
 	public static void closeSelenium()
 	{
-		if(driver != null) {
-			driver.quit();
-			driver = null;
+		for (SeleniumSession session : SeleniumSessionRegistry.removeAll()) {
+			session.close();
 		}
+		ListenerGateway.setWebDriver(null);
+		
+		if(pool != null) {
+			pool.close();
+			pool = null;
+		}
+		
+		writeMetrics();
+	}
+	
+	/**
+	 * Ends the sessions opened by a &lt;test&gt; block, at its end, when the browsers are
+	 * recycled. Their browsers are reset and given back to the pool, so the next block doesn't
+	 * pay the browser startup again. Sessions of other blocks, which may still run when the
+	 * suite is parallel by tests, are kept. Sessions opened outside of a block, for example by
+	 * a method annotated with BeforeSuite, are ended with the suite.
+	 * @param context &lt;test&gt; block finished
+	 */
+	@AfterTest(alwaysRun=true)
+	public static void recycleSelenium(final ITestContext context)
+	{
+		if(pool != null && SeleniumBrowserPool.isRecycleEnabled(parametersMap)) {
+			SeleniumSession current = SeleniumSessionRegistry.current();
+			for (SeleniumSession session : SeleniumSessionRegistry.removeAll(context)) {
+				release(session);
+				if(session == current) {
+					ListenerGateway.setWebDriver(null);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Ends the session bound to the current thread. If the browsers are recycled, the browser
+	 * is reset and kept to the next session opened, otherwise it's closed. It can be called,
+	 * for example, in a method annotated with AfterClass to start each test class with a
+	 * clean browser.
+	 */
+	public static void recycleSession() {
+		
+		SeleniumSession session = SeleniumSessionRegistry.unbind();
+		ListenerGateway.setWebDriver(null);
+		
+		if(session != null) {
+			SeleniumSessionRegistry.remove(session);
+			release(session);
+		}
+	}
+	
+	/**
+	 * Ends a session giving its browser back to the pool, if there is one.
+	 * @param session session to end
+	 */
+	private static void release(final SeleniumSession session) {
+		
+		SeleniumBrowserPool browserPool = pool;
+		
+		if(browserPool == null) {
+			session.close();
+		} else {
+			session.invalidate();
+			browserPool.release(session.getDriver());
+		}
+	}
+	
+	/**
+	 * Starts a new browser using the parameters informed to the suite, or takes one from the
+	 * pool, and binds its session to the current thread. The session belongs to the
+	 * &lt;test&gt; block running in the thread, if there is one. A session previously bound to the
+	 * thread is not closed, it only stops being the thread's session.
+	 * @return the session opened
+	 */
+	public static SeleniumSession openSession() {
+		
+		if(parametersMap == null){
+			throw new IllegalStateException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"parameters"));
+		}
+		
+		SeleniumBrowserPool browserPool = pool;
+		WebDriver driver = (browserPool == null) ? createDriver(parametersMap) : browserPool.acquire();
+		
+		ITestResult result = Reporter.getCurrentTestResult();
+		SeleniumSession session = new SeleniumSession(driver, (result == null) ? null : result.getTestContext());
+		bindSession(session);
+		return session;
+	}
+	
+	/**
+	 * Binds a session to the current thread, so getDriver(), getBuilder() and getBrowser()
+	 * resolve to it. It allows to explicitly hand over a session to another thread.
+	 * @param session session to be bound
+	 */
+	public static void bindSession(final SeleniumSession session) {
+		
+		if(session == null){
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"session"));
+		}
+		
+		SeleniumSessionRegistry.bind(session);
+		ListenerGateway.setWebDriver(session.getDriver());
+	}
+	
+	/** Closes the browser of the session bound to the current thread, if there is one. */
+	public static void closeSession() {
+		
+		SeleniumSession session = SeleniumSessionRegistry.unbind();
+		ListenerGateway.setWebDriver(null);
+		
+		if(session != null) {
+			SeleniumSessionRegistry.remove(session);
+			session.close();
+		}
+	}
+	
+	/**
+	 * Returns the session of the current thread, opening one if the thread doesn't have it yet.
+	 * @return the session, or null if the suite was not started
+	 */
+	public static SeleniumSession getSession() {
+		
+		SeleniumSession session = SeleniumSessionRegistry.current();
+		
+		if(session == null && parametersMap != null) {
+			session = openSession();
+		}
+		return session;
 	}
 
-	/** Returns the Selenium driver object.
+	/** Returns the Selenium driver object of the current thread's session.
 	 * @return the driver
 	 */
 	public static WebDriver getDriver() {
-		return driver;
+		SeleniumSession session = getSession();
+		return session == null ? null : session.getDriver();
 	}
 
-	/** Returns the Beholder builder objects structure.
+	/** Returns the Beholder builder objects structure of the current thread's session.
 	 * @return the builder
 	 */
 	public static Builder getBuilder() {
-		return builder;
+		SeleniumSession session = getSession();
+		return session == null ? null : session.getBuilder();
 	}
 
-	/** Returns a Browser object that contains methods to interact with the Browser's interface.
+	/** Returns a Browser object that contains methods to interact with the Browser's interface
+	 * of the current thread's session.
 	 * @return the webPage
 	 */
 	public static Browser getBrowser() {
-		return browser;
+		SeleniumSession session = getSession();
+		return session == null ? null : session.getBrowser();
+	}
+	
+	/**
+	 * Starts the browser informed by the parameters.
+	 * @param parameters suite parameters
+	 * @return the driver of the browser started
+	 */
+	static WebDriver createDriver(Map<String,String> parameters) {
+		
+		String 	browserName = parameters.get("browser"),
+				profile = parameters.get("profile"),
+				chromeDriverBin = parameters.get("chromeDriverBin"),
+				ieDriverBin = parameters.get("ieDriverBin"),
+				chromeBin = parameters.get("chromeBin"),
+				languages = parameters.get("languages");
+		
+		WebDriver driver;
+		
+		if(BrowsersList.FIREFOX.equalsString(browserName)){
+			FirefoxProfile fp = new FirefoxProfile();
+			fp.setPreference("dom.max_script_run_time", 0);
+			fp.setPreference("dom.max_chrome_script_run_time", 0);
+			if(profile != null && !profile.isEmpty()){
+				fp.setPreference("webdriver.firefox.profile", profile);
+			}
+			if(languages != null && !languages.isEmpty()){
+				fp.setPreference("intl.accept_languages", languages);
+			}
+			driver = new WebDriverAdapter(new FirefoxDriver(fp));
+		}
+		else if(BrowsersList.CHROME.equalsString(browserName)) {
+			
+			if(chromeBin == null){
+				throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"chromeBin"));
+			}
+			
+			
+			// Optional, if not specified, WebDriver will search your path for chromedriver 
+			// in the system environment. (OBS: To evade problems, webdriver.chrome.driver MUST have a value.
+			if(System.getProperty("webdriver.chrome.driver") == null || System.getProperty("webdriver.chrome.driver").isEmpty()){
+				if(chromeDriverBin == null){
+					throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"chromeDriverBin"));
+				}
+				System.setProperty("webdriver.chrome.driver", chromeDriverBin);	
+			}
+			
+			ChromeOptions co = new ChromeOptions();
+			// Get the chrome binary directory path from System Envionment.
+			co.setBinary(new File(chromeBin));
+			driver = new WebDriverAdapter(new ChromeDriver(co));
+		}
+		else if(BrowsersList.IE.equalsString(browserName))
+		{
+			if(ieDriverBin == null){
+					throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"ieDriverBin"));
+			}
+			System.setProperty("webdriver.ie.driver", ieDriverBin);	
+			driver = new WebDriverAdapter(new InternetExplorerDriver());
+		}
+		else if(BrowsersList.HTML_UNIT.equalsString(browserName)){
+			driver = new HtmlUnitDriver(true);
+		}
+		else {
+			throw new IllegalArgumentException(ErrorMessages.ERROR_BROWSER_INVALID);
+		}
+		
+		/* Sets to all driver methods the global timeout of 1 second. 
+		 * To tests, Timeouts must be specified on the components.
+		 */
+		driver.manage().timeouts().implicitlyWait(1, TimeUnit.SECONDS);
+		driver.manage().timeouts().setScriptTimeout(SCRIPT_TIMEOUT, TimeUnit.SECONDS);
+		return driver;
 	}
 	
 	/**
@@ -225,6 +406,20 @@ public final class SeleniumController {
 		return parametersMap.get(paramenter);
 	}
 	
+	/** Writes the metrics of the commands in the file informed by the parameter metricsFile, if any. */
+	private static void writeMetrics(){
+		
+		String metricsFile = (parametersMap == null) ? null : parametersMap.get(METRICS_FILE);
+		
+		if(metricsFile != null && !metricsFile.isEmpty()) {
+			try {
+				SeleniumMetrics.getInstance().writeTo(new File(metricsFile));
+			} catch (IOException e) {
+				LogManager.getLogger("general").error(ErrorMessages.ERROR_IO_EXCEPTION, e);
+			}
+		}
+	}
+	
 	private static void parametersInfo(){
 		
 		Logger logger = LogManager.getLogger("general");
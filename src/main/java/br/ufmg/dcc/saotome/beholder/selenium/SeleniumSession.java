@@ -0,0 +1,115 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium;
+
+import org.openqa.selenium.WebDriver;
+import org.testng.ITestContext;
+
+import br.ufmg.dcc.saotome.beholder.Browser;
+import br.ufmg.dcc.saotome.beholder.builder.Builder;
+import br.ufmg.dcc.saotome.beholder.selenium.builder.SeleniumBuilder;
+import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
+
+/**
+ * A browser session groups the driver, the builder and the browser used by one test thread.
+ * Every component created by the session's builder talks only to the session's driver, so
+ * sessions can run side by side when TestNG executes tests in parallel.
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ * @see SeleniumController
+ */
+public final class SeleniumSession {
+
+	/** Browser driver that contains the application component search. */
+	private final WebDriver driver;
+	/** This object generates all usable components of Beholder. */
+	private final Builder builder;
+	/** This object represents a browser functionalities */
+	private final Browser browser;
+	/** &lt;test&gt; block running when the session was opened, or null */
+	private final ITestContext test;
+	/** Indicates if the session's browser was already closed */
+	private volatile boolean closed = false;
+	
+	/**
+	 * Creates a session over a driver already started.
+	 * @param driver Browser driver
+	 * @param test &lt;test&gt; block running when the session is opened, or null if the
+	 * session is opened outside of a &lt;test&gt; block
+	 */
+	SeleniumSession(final WebDriver driver, final ITestContext test) {
+		
+		if (driver == null) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"driver"));
+		}
+		
+		this.driver = driver;
+		this.test = test;
+		this.builder = new SeleniumBuilder(driver);
+		this.browser = new SeleniumBrowser(driver);
+	}
+
+	/** Returns the Selenium driver object of the session.
+	 * @return the driver
+	 */
+	public WebDriver getDriver() {
+		return this.driver;
+	}
+
+	/** Returns the Beholder builder that creates components bound to the session's driver.
+	 * @return the builder
+	 */
+	public Builder getBuilder() {
+		return this.builder;
+	}
+
+	/** Returns a Browser object that interacts with the session's browser.
+	 * @return the browser
+	 */
+	public Browser getBrowser() {
+		return this.browser;
+	}
+	
+	/**
+	 * Returns the &lt;test&gt; block running when the session was opened.
+	 * @return the test context, or null if the session was opened outside of a block
+	 */
+	ITestContext getTest() {
+		return this.test;
+	}
+	
+	/**
+	 * Indicates if the session's browser was closed.
+	 * @return true if the session cannot be used anymore
+	 */
+	public boolean isClosed() {
+		return this.closed;
+	}
+	
+	/** Ends the session without closing its browser, which may be reused by another session. */
+	void invalidate() {
+		this.closed = true;
+	}
+	
+	/** Close the session's browser. */
+	void close() {
+		invalidate();
+		this.driver.quit();
+	}
+}
@@ -0,0 +1,120 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.testng.ITestContext;
+
+/**
+ * Keeps the sessions opened during the suite and the session bound to each thread. A thread
+ * sees only the session bound to it, while the registry still knows every session opened, so
+ * all of them can be closed at the end of the suite.
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ * @see SeleniumSession
+ */
+final class SeleniumSessionRegistry {
+
+	/** Session bound to the current thread */
+	private static final ThreadLocal<SeleniumSession> current = new ThreadLocal<SeleniumSession>();
+	
+	/** All sessions opened and not closed yet */
+	private static final Set<SeleniumSession> sessions = 
+			Collections.newSetFromMap(new ConcurrentHashMap<SeleniumSession, Boolean>());
+	
+	/* Hidden Constructor */
+	private SeleniumSessionRegistry() {}
+	
+	/**
+	 * Returns the session bound to the current thread.
+	 * @return the session, or null if the thread has no session or its session was closed
+	 */
+	static SeleniumSession current() {
+		SeleniumSession session = current.get();
+		if (session != null && session.isClosed()) {
+			current.remove();
+			return null;
+		}
+		return session;
+	}
+	
+	/**
+	 * Binds a session to the current thread, registering it if it's new.
+	 * @param session session to bind
+	 */
+	static void bind(final SeleniumSession session) {
+		sessions.add(session);
+		current.set(session);
+	}
+	
+	/**
+	 * Removes the binding of the current thread. The session stays registered.
+	 * @return the session that was bound, or null
+	 */
+	static SeleniumSession unbind() {
+		SeleniumSession session = current.get();
+		current.remove();
+		return session;
+	}
+	
+	/**
+	 * Forgets a session. Threads still bound to it keep it until they're unbound.
+	 * @param session session to remove
+	 */
+	static void remove(final SeleniumSession session) {
+		sessions.remove(session);
+	}
+	
+	/**
+	 * Removes every session from the registry and returns them.
+	 * @return sessions registered until now
+	 */
+	static List<SeleniumSession> removeAll() {
+		List<SeleniumSession> removed = new ArrayList<SeleniumSession>(sessions);
+		sessions.removeAll(removed);
+		current.remove();
+		return removed;
+	}
+	
+	/**
+	 * Removes the sessions opened by a &lt;test&gt; block and returns them. Sessions of other
+	 * blocks, which may be running in parallel, stay registered. The current thread is unbound
+	 * if its session is one of them.
+	 * @param test &lt;test&gt; block that opened the sessions
+	 * @return sessions opened by the block
+	 */
+	static List<SeleniumSession> removeAll(final ITestContext test) {
+		List<SeleniumSession> removed = new ArrayList<SeleniumSession>();
+		for (SeleniumSession session : sessions) {
+			if (session.getTest() == test) {
+				removed.add(session);
+			}
+		}
+		sessions.removeAll(removed);
+		if (removed.contains(current.get())) {
+			current.remove();
+		}
+		return removed;
+	}
+}
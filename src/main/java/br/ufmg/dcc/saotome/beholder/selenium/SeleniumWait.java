@@ -0,0 +1,112 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import br.ufmg.dcc.saotome.beholder.selenium.metrics.FlightRecorder;
+import br.ufmg.dcc.saotome.beholder.selenium.metrics.WaitOutcome;
+
+/**
+ * Waits for conditions in the browser. All the waits of the framework are made by this class,
+ * so their duration, the times the condition was evaluated and how they finished are emitted as
+ * Flight Recorder events when a recording asks for them. Each wait activates its
+ * {@link Deadline} while the condition is evaluated, so the waits nested in it don't go
+ * beyond it.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ * @see FlightRecorder
+ */
+public final class SeleniumWait {
+
+	/* Hidden Constructor */
+	private SeleniumWait() {}
+	
+	/**
+	 * Waits until the condition returns a value different of null and false. Inside the
+	 * deadline of another wait of the thread, the wait finishes at that deadline if it comes
+	 * first; when it already expired, the condition is evaluated only once.
+	 * @param driver driver passed to the condition
+	 * @param timeoutSeconds time to wait, in seconds
+	 * @param description description of the condition, used by the events
+	 * @param condition condition waited
+	 * @return the last value returned by the condition
+	 * @throws TimeoutException if the timeout expires before the condition is satisfied
+	 */
+	public static <T> T until(final WebDriver driver, final long timeoutSeconds,
+			final String description, final ExpectedCondition<T> condition) {
+		
+		Deadline deadline = Deadline.within(timeoutSeconds, TimeUnit.SECONDS);
+		Deadline previous = deadline.activate();
+		try {
+			return until(driver, deadline, timeoutSeconds, description, condition);
+		} finally {
+			Deadline.restore(previous);
+		}
+	}
+	
+	private static <T> T until(final WebDriver driver, final Deadline deadline, final long timeoutSeconds,
+			final String description, final ExpectedCondition<T> condition) {
+		
+		WebDriverWait wait = new WebDriverWait(driver, timeoutSeconds);
+		wait.withTimeout(deadline.remaining(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS);
+		
+		if (!FlightRecorder.isWaitEnabled()) {
+			return wait.until(condition);
+		}
+		
+		CountingCondition<T> counting = new CountingCondition<T>(condition);
+		WaitOutcome outcome = WaitOutcome.FAILED;
+		long start = System.nanoTime();
+		try {
+			T result = wait.until(counting);
+			outcome = WaitOutcome.SATISFIED;
+			return result;
+		} catch (TimeoutException e) {
+			outcome = WaitOutcome.TIMED_OUT;
+			throw e;
+		} finally {
+			FlightRecorder.waitFinished(description, timeoutSeconds, counting.polls, outcome,
+					System.nanoTime() - start);
+		}
+	}
+	
+	/** Condition that counts the times it's evaluated. */
+	private static final class CountingCondition<T> implements ExpectedCondition<T> {
+		
+		private final ExpectedCondition<T> condition;
+		/** Only the thread waiting evaluates the condition */
+		private int polls;
+		
+		CountingCondition(final ExpectedCondition<T> condition) {
+			this.condition = condition;
+		}
+		
+		public T apply(final WebDriver driver) {
+			this.polls++;
+			return this.condition.apply(driver);
+		}
+	}
+}
@@ -19,12 +19,18 @@
  */
 package br.ufmg.dcc.saotome.beholder.selenium;
 
+import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.openqa.selenium.Alert;
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.OutputType;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
@@ -32,6 +38,8 @@ import org.openqa.selenium.internal.Killable;
 import org.openqa.selenium.remote.RemoteWebDriver;
 
 import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
+import br.ufmg.dcc.saotome.beholder.selenium.metrics.Command;
+import br.ufmg.dcc.saotome.beholder.selenium.metrics.SeleniumMetrics;
 
 /** 
  * The class WebDriverAdapter was created to solve the DOM reference lost in Selenium when 
@@ -40,15 +48,40 @@ import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
  * the responsability of identify this problem to tester. So, to solve this problem, this class
  * implements the WebDriver interface and encapsule the WebDriver object returned by WebDriver, 
  * trying to request a new web element when the StaleElementReferenceException occurs.
+ * <p>The adapter also tracks the navigation epoch of the browser, so caches can know when
+ * the document in use changed, and records the latency of every command in the SeleniumMetrics.
  * 
  * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
  * @see StaleElementReferenceException
  */
-class WebDriverAdapter extends RemoteWebDriver implements TakesScreenshot, Killable, WebDriver {
+class WebDriverAdapter extends RemoteWebDriver implements TakesScreenshot, Killable, WebDriver, NavigationTracker {
+	
+	/** Locator of the root element of the pages */
+	private static final By ROOT_LOCATOR = By.tagName("html");
+	
+	/** Metrics of the commands */
+	private static final SeleniumMetrics METRICS = SeleniumMetrics.getInstance();
 	
 	/** Webdriver original instance */
 	private WebDriver driver;
 	
+	/** Marks the document with an identity, created in the first probe, and returns it */
+	private static final String DOCUMENT_IDENTITY_SCRIPT = 
+			"var doc = document;" +
+			"if (!doc.__beholderDocumentId) {" +
+			"  doc.__beholderDocumentId = new Date().getTime() + '-' + Math.random();" +
+			"}" +
+			"return doc.__beholderDocumentId;";
+	
+	/** Navigation epoch, changed whenever the page or the frame in use may have changed. */
+	private final AtomicLong epoch = new AtomicLong();
+	/** Identity of the document seen in the last probe */
+	private volatile String documentIdentity;
+	/** Listeners of the navigation epoch */
+	private final List<NavigationListener> listeners = new CopyOnWriteArrayList<NavigationListener>();
+	/** Root element cached, valid only while the epoch doesn't change */
+	private volatile CachedRoot root;
+	
 	/** Constructor that encapsule the original WebDriver.
 	 * @param driver
 	 */
@@ -69,64 +102,199 @@ class WebDriverAdapter extends RemoteWebDriver implements TakesScreenshot, Killa
 
 	@Override
 	public void get(String url) {
-		this.driver.get(url);
+		newEpoch();
+		long start = System.nanoTime();
+		try {
+			this.driver.get(url);
+		} finally {
+			METRICS.record(Command.GET, start);
+		}
 	}
 
 	@Override
 	public String getCurrentUrl() {
-		return this.driver.getCurrentUrl();
+		long start = System.nanoTime();
+		try {
+			return this.driver.getCurrentUrl();
+		} finally {
+			METRICS.record(Command.GET_CURRENT_URL, start);
+		}
 	}
 
 	@Override
 	public String getTitle() {
-		return this.driver.getTitle();
+		long start = System.nanoTime();
+		try {
+			return this.driver.getTitle();
+		} finally {
+			METRICS.record(Command.GET_TITLE, start);
+		}
 	}
 
 	@Override
 	public List<WebElement> findElements(final By by) {
-		
-		// It's instanced a html element to reuse the findElements of WebElementAdapter		
-		WebElement html = this.driver.findElement(By.tagName("html"));
-		WebElement htmlAdapter = new WebElementAdapter(html, null, By.tagName("html"));
-		
-		return htmlAdapter.findElements(by);
+		// The html element is used to reuse the findElements of WebElementAdapter, that records the command once
+		return getRootElement().findElementsForDriver(by);
 	}
 
 	@Override
 	public WebElement findElement(final By by) {
+		// The html element is used to reuse the findElement of WebElementAdapter, that records the command once
+		return getRootElement().findElementForDriver(by);
+	}
+	
+	/**
+	 * Returns the html element of the page in use. The element is cached until the navigation
+	 * epoch changes, saving a command to the browser on each search. If the page is replaced
+	 * without the driver knowing it, for example after a click in a link, the cached element
+	 * turns stale and the WebElementAdapter finds the new html element by itself, warning the
+	 * driver that the document was replaced.
+	 * @return html element encapsulated by a WebElementAdapter
+	 */
+	private WebElementAdapter getRootElement() {
+		
+		long currentEpoch = this.epoch.get();
+		CachedRoot cached = this.root;
+		
+		if (cached != null && cached.epoch == currentEpoch) {
+			METRICS.commandSaved();
+			return cached.element;
+		}
 		
-		final String tag = "html";
+		long start = System.nanoTime();
+		WebElement html;
+		try {
+			html = this.driver.findElement(ROOT_LOCATOR);
+		} finally {
+			METRICS.record(Command.FIND_ROOT_ELEMENT, start);
+		}
+		WebElementAdapter htmlAdapter = new WebElementAdapter(this, html, ROOT_LOCATOR);
+		this.root = new CachedRoot(htmlAdapter, currentEpoch);
+		
+		return htmlAdapter;
+	}
+	
+	/**
+	 * Encapsulates an element found by a script, as if it was found by findElement with
+	 * the locator. The element is found again by the locator when its reference is lost.
+	 * @param element element found
+	 * @param locator locator that matches the element first
+	 * @return element encapsulated by a WebElementAdapter
+	 */
+	WebElement adapt(final WebElement element, final By locator) {
+		return new WebElementAdapter(element, getRootElement(), locator);
+	}
+	
+	/**
+	 * Called by the root element when it was found again after losing its DOM reference, what
+	 * means the document was replaced. The root element keeps cached in the new epoch.
+	 * @param rootElement root element with the new DOM reference
+	 */
+	void documentReplaced(WebElementAdapter rootElement) {
+		long currentEpoch = newEpoch();
+		this.root = new CachedRoot(rootElement, currentEpoch);
+	}
+	
+	/**
+	 * Starts a new navigation epoch, discarding the root element cached and notifying
+	 * the listeners.
+	 * @return the new epoch
+	 */
+	private long newEpoch() {
 		
-		// It's instanced a html element to reuse the findElement of WebElementAdapter
-		WebElement html = this.driver.findElement(By.tagName(tag));
-		WebElement htmlAdapter = new WebElementAdapter(html, null, By.tagName(tag));
+		this.root = null;
+		this.documentIdentity = null;
+		long currentEpoch = this.epoch.incrementAndGet();
 		
-		return htmlAdapter.findElement(by);
+		for (NavigationListener listener : this.listeners) {
+			listener.onNavigation(currentEpoch);
+		}
+		return currentEpoch;
+	}
+	
+	@Override
+	public long getNavigationEpoch() {
+		return this.epoch.get();
+	}
+	
+	@Override
+	public long probeDocument() {
+		
+		long currentEpoch = this.epoch.get();
+		Object identity = executeScript(DOCUMENT_IDENTITY_SCRIPT);
+		String lastIdentity = this.documentIdentity;
+		
+		if (lastIdentity != null && !lastIdentity.equals(identity)) {
+			currentEpoch = newEpoch();
+		}
+		this.documentIdentity = (identity == null) ? null : identity.toString();
+		
+		return currentEpoch;
+	}
+	
+	@Override
+	public void addNavigationListener(NavigationListener listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"listener"));
+		}
+		this.listeners.add(listener);
+	}
+	
+	@Override
+	public void removeNavigationListener(NavigationListener listener) {
+		this.listeners.remove(listener);
 	}
 
+
 	@Override
 	public String getPageSource() {
-		return this.driver.getPageSource();
+		long start = System.nanoTime();
+		try {
+			return this.driver.getPageSource();
+		} finally {
+			METRICS.record(Command.GET_PAGE_SOURCE, start);
+		}
 	}
 
 	@Override
 	public void close() {
-		this.driver.close();
+		newEpoch();
+		long start = System.nanoTime();
+		try {
+			this.driver.close();
+		} finally {
+			METRICS.record(Command.CLOSE, start);
+		}
 	}
 
 	@Override
 	public void quit() {
-		this.driver.quit();
+		long start = System.nanoTime();
+		try {
+			this.driver.quit();
+		} finally {
+			METRICS.record(Command.QUIT, start);
+		}
 	}
 
 	@Override
 	public Set<String> getWindowHandles() {
-		return this.driver.getWindowHandles();
+		long start = System.nanoTime();
+		try {
+			return this.driver.getWindowHandles();
+		} finally {
+			METRICS.record(Command.GET_WINDOW_HANDLES, start);
+		}
 	}
 
 	@Override
 	public String getWindowHandle() {
-		return this.driver.getWindowHandle();
+		long start = System.nanoTime();
+		try {
+			return this.driver.getWindowHandle();
+		} finally {
+			METRICS.record(Command.GET_WINDOW_HANDLE, start);
+		}
 	}
 
 	@Override
@@ -136,7 +304,7 @@ class WebDriverAdapter extends RemoteWebDriver implements TakesScreenshot, Killa
 
 	@Override
 	public Navigation navigate() {
-		return this.driver.navigate();
+		return new NavigationAdapter(this.driver.navigate());
 	}
 
 	@Override
@@ -155,15 +323,195 @@ class WebDriverAdapter extends RemoteWebDriver implements TakesScreenshot, Killa
 
 	@Override
 	public void kill() {
-		((Killable)driver).kill();
+		long start = System.nanoTime();
+		try {
+			((Killable)driver).kill();
+		} finally {
+			METRICS.record(Command.KILL, start);
+		}
 	}
 
 	@Override
 	public <X> X getScreenshotAs(OutputType<X> target) {
-		return ((TakesScreenshot)driver).<X>getScreenshotAs(target);
+		long start = System.nanoTime();
+		try {
+			return ((TakesScreenshot)driver).<X>getScreenshotAs(target);
+		} finally {
+			METRICS.record(Command.SCREENSHOT, start);
+		}
+	}
+	
+	@Override
+	public Object executeScript(String script, Object... args) {
+		long start = System.nanoTime();
+		try {
+			try {
+				return ((JavascriptExecutor)driver).executeScript(script, unwrap(args));
+			} catch (StaleElementReferenceException staleException) {
+				if (!refresh(args, Command.EXECUTE_SCRIPT)) {
+					throw staleException;
+				}
+				return ((JavascriptExecutor)driver).executeScript(script, unwrap(args));
+			}
+		} finally {
+			METRICS.record(Command.EXECUTE_SCRIPT, start);
+		}
+	}
+
+	@Override
+	public Object executeAsyncScript(String script, Object... args) {
+		long start = System.nanoTime();
+		try {
+			try {
+				return ((JavascriptExecutor)driver).executeAsyncScript(script, unwrap(args));
+			} catch (StaleElementReferenceException staleException) {
+				if (!refresh(args, Command.EXECUTE_ASYNC_SCRIPT)) {
+					throw staleException;
+				}
+				return ((JavascriptExecutor)driver).executeAsyncScript(script, unwrap(args));
+			}
+		} finally {
+			METRICS.record(Command.EXECUTE_ASYNC_SCRIPT, start);
+		}
+	}
+	
+	/**
+	 * Finds again the WebElementAdapter arguments of a script that found one of them without
+	 * reference. 
+	 * @param args script arguments
+	 * @param command script command, used by the metrics
+	 * @return true if the script can be executed again
+	 */
+	private static boolean refresh(Object[] args, Command command) {
+		
+		boolean refreshed = false;
+		if (args != null) {
+			for (Object arg : args) {
+				if (arg instanceof WebElementAdapter) {
+					if (!((WebElementAdapter) arg).refresh(command)) {
+						return false;
+					}
+					refreshed = true;
+				}
+			}
+		}
+		return refreshed;
+	}
+	
+	/**
+	 * Replaces the WebElementAdapter arguments of a script by the elements they encapsule,
+	 * because the original driver only knows how to send its own elements to the browser.
+	 * @param args script arguments
+	 * @return arguments that can be sent to the original driver
+	 */
+	private static Object[] unwrap(Object[] args) {
+		
+		if (args == null) {
+			return null;
+		}
+		
+		Object[] unwrapped = new Object[args.length];
+		for (int index = 0; index < args.length; index++) {
+			unwrapped[index] = unwrap(args[index]);
+		}
+		return unwrapped;
+	}
+	
+	private static Object unwrap(Object arg) {
+		
+		if (arg instanceof WebElementAdapter) {
+			return ((WebElementAdapter) arg).getElement();
+		}
+		
+		if (arg instanceof List<?>) {
+			List<Object> unwrapped = new ArrayList<Object>();
+			for (Object item : (List<?>) arg) {
+				unwrapped.add(unwrap(item));
+			}
+			return unwrapped;
+		}
+		return arg;
+	}
+	
+	/** Root element cached with the epoch in which it was found */
+	private static final class CachedRoot {
+		
+		private final WebElementAdapter element;
+		private final long epoch;
+		
+		CachedRoot(WebElementAdapter element, long epoch) {
+			this.element = element;
+			this.epoch = epoch;
+		}
 	}
 	
-	private static class TargetLocatorAdapter implements TargetLocator{
+	/** Navigation that starts a new navigation epoch on each movement. */
+	private class NavigationAdapter implements Navigation {
+		
+		private Navigation navigation;
+		
+		public NavigationAdapter(Navigation navigation) {
+			this.navigation = navigation;
+		}
+
+		@Override
+		public void back() {
+			newEpoch();
+			long start = System.nanoTime();
+			try {
+				this.navigation.back();
+			} finally {
+				METRICS.record(Command.NAVIGATE_BACK, start);
+			}
+		}
+
+		@Override
+		public void forward() {
+			newEpoch();
+			long start = System.nanoTime();
+			try {
+				this.navigation.forward();
+			} finally {
+				METRICS.record(Command.NAVIGATE_FORWARD, start);
+			}
+		}
+
+		@Override
+		public void to(String url) {
+			newEpoch();
+			long start = System.nanoTime();
+			try {
+				this.navigation.to(url);
+			} finally {
+				METRICS.record(Command.NAVIGATE_TO, start);
+			}
+		}
+
+		@Override
+		public void to(URL url) {
+			newEpoch();
+			long start = System.nanoTime();
+			try {
+				this.navigation.to(url);
+			} finally {
+				METRICS.record(Command.NAVIGATE_TO, start);
+			}
+		}
+
+		@Override
+		public void refresh() {
+			newEpoch();
+			long start = System.nanoTime();
+			try {
+				this.navigation.refresh();
+			} finally {
+				METRICS.record(Command.NAVIGATE_REFRESH, start);
+			}
+		}
+	}
+	
+	/** Target locator that starts a new navigation epoch when the frame or window changes. */
+	private class TargetLocatorAdapter implements TargetLocator{
 		
 		private TargetLocator targetLocator;
 		
@@ -173,12 +521,26 @@ class WebDriverAdapter extends RemoteWebDriver implements TakesScreenshot, Killa
 
 		@Override
 		public WebDriver frame(int index) {
-			return this.targetLocator.frame(index);
+			newEpoch();
+			long start = System.nanoTime();
+			try {
+				this.targetLocator.frame(index);
+			} finally {
+				METRICS.record(Command.SWITCH_TO_FRAME, start);
+			}
+			return WebDriverAdapter.this;
 		}
 
 		@Override
 		public WebDriver frame(String nameOrId) {
-			return this.targetLocator.frame(nameOrId);
+			newEpoch();
+			long start = System.nanoTime();
+			try {
+				this.targetLocator.frame(nameOrId);
+			} finally {
+				METRICS.record(Command.SWITCH_TO_FRAME, start);
+			}
+			return WebDriverAdapter.this;
 		}
 
 		@Override
@@ -189,32 +551,70 @@ class WebDriverAdapter extends RemoteWebDriver implements TakesScreenshot, Killa
 			}else {
 				element = frameElement;
 			}
-			return this.targetLocator.frame(element);
+			newEpoch();
+			long start = System.nanoTime();
+			try {
+				this.targetLocator.frame(element);
+			} finally {
+				METRICS.record(Command.SWITCH_TO_FRAME, start);
+			}
+			return WebDriverAdapter.this;
 		}
 
 		@Override
 		public WebDriver window(String nameOrHandle) {
-			return this.targetLocator.window(nameOrHandle);
+			newEpoch();
+			long start = System.nanoTime();
+			try {
+				this.targetLocator.window(nameOrHandle);
+			} finally {
+				METRICS.record(Command.SWITCH_TO_WINDOW, start);
+			}
+			return WebDriverAdapter.this;
 		}
 
 		@Override
 		public WebDriver defaultContent() {
-			return this.targetLocator.defaultContent();
+			newEpoch();
+			long start = System.nanoTime();
+			try {
+				this.targetLocator.defaultContent();
+			} finally {
+				METRICS.record(Command.SWITCH_TO_DEFAULT_CONTENT, start);
+			}
+			return WebDriverAdapter.this;
 		}
 
 		@Override
 		public WebElement activeElement() {
-			return this.targetLocator.activeElement();
+			long start = System.nanoTime();
+			try {
+				return this.targetLocator.activeElement();
+			} finally {
+				METRICS.record(Command.GET_ACTIVE_ELEMENT, start);
+			}
 		}
 
 		@Override
 		public Alert alert() {
-			return this.targetLocator.alert();
+			long start = System.nanoTime();
+			try {
+				return this.targetLocator.alert();
+			} finally {
+				METRICS.record(Command.SWITCH_TO_ALERT, start);
+			}
 		}
 
 		@Override
 		public WebDriver parentFrame() {
-			return this.targetLocator.parentFrame();
+			newEpoch();
+			long start = System.nanoTime();
+			try {
+				this.targetLocator.parentFrame();
+			} finally {
+				METRICS.record(Command.SWITCH_TO_PARENT_FRAME, start);
+			}
+			return WebDriverAdapter.this;
 		}
 		
 	}
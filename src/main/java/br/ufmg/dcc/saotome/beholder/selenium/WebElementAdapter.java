@@ -24,14 +24,17 @@ import java.util.List;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.Dimension;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.Point;
 import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedCondition;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
+import br.ufmg.dcc.saotome.beholder.selenium.metrics.Command;
+import br.ufmg.dcc.saotome.beholder.selenium.metrics.FlightRecorder;
+import br.ufmg.dcc.saotome.beholder.selenium.metrics.SeleniumMetrics;
 import br.ufmg.dcc.saotome.beholder.selenium.ui.SeleniumComponent;
 
 /**
@@ -43,9 +46,10 @@ import br.ufmg.dcc.saotome.beholder.selenium.ui.SeleniumComponent;
  * WebElementAdapter interface and encapsule the WebElement object returned by a
  * WebElement or WebDriver, trying to request a new web element when the
  * StaleElementReferenceException occurs.
- * <p> Methods using the elements matched by <b>findElements</b> must implement a catch for 
- * StaleElementReferenceException, because if a AJAX reloads one of the elements, the
- * exceptions is not solved by WebElementAdapter.
+ * <p> Elements matched by <b>findElements</b> remember their position in the list found. When
+ * one of them loses its reference, the element in the same position is found again. Elements
+ * created as not unique without a position throw the StaleElementReferenceException to the
+ * caller method.
  * 
  * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
  * @see StaleElementReferenceException
@@ -56,13 +60,27 @@ class WebElementAdapter implements WebElement{
 	// Global Variables
 	/** Parent that found the element. */
 	private WebElementAdapter parent;
-	/** element order of match on search */
+	/** Driver used to find the element again. If null, the driver of the current session is used. */
+	private WebDriver driver;
+	/** Driver adapter whose root element is this element, or null if it's not a root element. */
+	private WebDriverAdapter owner;
+	/** element order of match on search, or -1 if it's unknown */
+	private int index;
 	/** Element locator. */
 	private By locator;
 	/** Element. */
 	private WebElement element;
 	/** The element is unique? */
 	private Boolean isUnique;
+	/** Tag name of the element, or null if it wasn't read yet. */
+	private String tagName;
+	/** Path of locators used to find the element again, or null if it can't be found by a script. */
+	private LocatorPath locatorPath;
+	/** The locator path was already created? */
+	private boolean locatorPathCreated;
+	
+	/** Metrics of the commands */
+	private static final SeleniumMetrics METRICS = SeleniumMetrics.getInstance();
 	
 	// Alias for this object
 	private final WebElementAdapter thisObject = this;
@@ -82,6 +100,25 @@ class WebElementAdapter implements WebElement{
 	public WebElementAdapter(WebElement element, WebElementAdapter parent, By locator) {
 		this(element, parent, locator, true);
 	}
+	
+	/**
+	 * Constructor to the root element of a driver adapter. When the DOM reference is lost, the
+	 * element is found again using the original WebDriver and the adapter is warned that its
+	 * document was replaced.
+	 * 
+	 * @param owner
+	 *            Driver adapter whose root element is this element.
+	 * @param element
+	 *            WebElementAdapter found.
+	 * @param locator
+	 *            WebElementAdapter locator.
+	 */
+	public WebElementAdapter(WebDriverAdapter owner, WebElement element, By locator) {
+		this(element, null, locator, true);
+		this.driver = owner.getWebDriver();
+		this.owner = owner;
+		this.tagName = "html";
+	}
 
 	/**
 	 * Constructor to a WebElementAdapter which locator was finding a list of objects
@@ -93,8 +130,9 @@ class WebElementAdapter implements WebElement{
 	 *            WebElementAdapter that execute the search.
 	 * @param locator
 	 *            WebElementAdapter locator.
-	 * @param index
-	 *            WebElementAdapter order in which it was found.
+	 * @param isUnique
+	 *            true if the locator matches only this element. Elements not unique created
+	 *            by this constructor aren't found again when they lose their reference.
 	 */
 	public WebElementAdapter(WebElement element, WebElementAdapter parent, By locator,
 			Boolean isUnique) {
@@ -113,6 +151,31 @@ class WebElementAdapter implements WebElement{
 		this.parent = parent;
 		this.locator = locator;
 		this.isUnique = isUnique;
+		this.index = isUnique ? 0 : -1;
+		this.driver = (parent == null) ? null : parent.driver;
+	}
+	
+	/**
+	 * Constructor to a WebElementAdapter matched by a locator that found a list of objects.
+	 * When the reference is lost, the element in the same position is found again.
+	 * 
+	 * @param element
+	 *            WebElementAdapter found.
+	 * @param parent
+	 *            WebElementAdapter that execute the search.
+	 * @param locator
+	 *            WebElementAdapter locator.
+	 * @param index
+	 *            WebElementAdapter order in which it was found.
+	 */
+	public WebElementAdapter(WebElement element, WebElementAdapter parent, By locator,
+			int index) {
+		this(element, parent, locator, false);
+		
+		if (index < 0) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_INVALID_PARAMETER, "index", index));
+		}
+		this.index = index;
 	}
 
 	/**
@@ -144,282 +207,467 @@ class WebElementAdapter implements WebElement{
 	public WebElement getElement() {
 		return this.element;
 	}
+	
+	/**
+	 * @return position of the element in the elements matched by its locator, or -1 if it's unknown
+	 */
+	int getIndex() {
+		return this.index;
+	}
+	
+	/**
+	 * @return locator used to find the element
+	 */
+	By getLocator() {
+		return this.locator;
+	}
+	
+	/**
+	 * Verifies, without sending commands to the browser, if the element is the html element
+	 * of the page. Elements found from it are searched in the whole document.
+	 * 
+	 * @return true if the element is the root of a driver adapter or its tag name is known to be html
+	 */
+	boolean isDocumentElement() {
+		return this.owner != null || "html".equalsIgnoreCase(this.tagName);
+	}
 
 	@Override
 	public void click() {
-		(new StaleExceptionResolver<Object>() {
-
-			@Override
-			public Object execute(WebElement element) {
-				element.click();
-				return null;
-			}
-		}).waitForElement();
+		resolve(StaleExceptionResolver.CLICK, null);
 	}
 
 	@Override
 	public void submit() {
-		(new StaleExceptionResolver<Object>() {
-
-			@Override
-			public Object execute(WebElement element) {
-				element.submit();
-				return null;
-			}
-		}).waitForElement();
-
+		resolve(StaleExceptionResolver.SUBMIT, null);
 	}
 
 	@Override
 	public void sendKeys(final CharSequence... keysToSend) {
-		(new StaleExceptionResolver<Object>() {
-
-			@Override
-			public Object execute(WebElement element) {
-				element.sendKeys(keysToSend);
-				return null;
-			}
-		}).waitForElement();
+		resolve(StaleExceptionResolver.SEND_KEYS, keysToSend);
 	}
 
 	@Override
 	public void clear() {
-		(new StaleExceptionResolver<Object>() {
-
-			@Override
-			public Object execute(WebElement element) {
-				element.clear();
-				return null;
-			}
-		}).waitForElement();
+		resolve(StaleExceptionResolver.CLEAR, null);
 	}
 
 	@Override
 	public String getTagName() {
-		return new StaleExceptionResolver<String>() {
-			@Override
-			public String execute(WebElement element) {
-				return element.getTagName();
-			}
-		}.waitForElement();
+		if (this.tagName == null) {
+			this.tagName = resolve(StaleExceptionResolver.GET_TAG_NAME, null);
+		}
+		return this.tagName;
 	}
 
 	@Override
 	public String getAttribute(final String name) {
-		return new StaleExceptionResolver<String>() {
-
-			@Override
-			public String execute(WebElement element) {
-				return element.getAttribute(name);
-			}
-		}.waitForElement();
+		return resolve(StaleExceptionResolver.GET_ATTRIBUTE, name);
 	}
 
 	@Override
 	public boolean isSelected() {
-		return new StaleExceptionResolver<Boolean>() {
-			@Override
-			public Boolean execute(WebElement element) {
-				return element.isSelected();
-			}
-		}.waitForElement();
+		return resolve(StaleExceptionResolver.IS_SELECTED, null).booleanValue();
 	}
 
 	@Override
 	public boolean isEnabled() {
-		return new StaleExceptionResolver<Boolean>() {
-			@Override
-			public Boolean execute(WebElement element) {
-				return element.isEnabled();
-			}
-		}.waitForElement();
+		return resolve(StaleExceptionResolver.IS_ENABLED, null).booleanValue();
 	}
 
 	@Override
 	public String getText() {
-		return new StaleExceptionResolver<String>() {
-			@Override
-			public String execute(WebElement element) {
-				return element.getText();
-			}
-		}.waitForElement();
+		return resolve(StaleExceptionResolver.GET_TEXT, null);
 	}
 
 	/** {@inheritDoc}
-	 * <p> The method using the elements matched by findElements must implement a catch for 
-	 * StaleElementReferenceException, because if a AJAX reloads one of the elements, the
-	 * exceptions is not solved by WebElementAdapter.*/
+	 * <p> If one of the elements loses its reference, the element in the same position is
+	 * found again.*/
 	@Override
 	public List<WebElement> findElements(final By by) {
-
-		return (List<WebElement>) (new StaleExceptionResolver<List<WebElement>>() {
-			@Override
-			public List<WebElement> execute(WebElement element) {
-				List<WebElement> elements = new ArrayList<WebElement>(); // create
-																			// a
-																			// new
-																			// list
-																			// of
-																			// WebElements
-				for (WebElement webElement : element.findElements(by)) {
-					// encapsule the WebElements inside of a WebElementAdapter
-					elements.add(new WebElementAdapter(webElement, thisObject, by, false)); 
-				}// end for
-				return elements;
-			}// end execute
-		}).waitForElement();
-	}// end findElements
+		return resolve(StaleExceptionResolver.FIND_ELEMENTS, by);
+	}
 
 	@Override
 	public WebElement findElement(final By by) {
-		return new StaleExceptionResolver<WebElement>() {
-
-			@Override
-			public WebElementAdapter execute(WebElement element) {
-				return new WebElementAdapter(element.findElement(by),thisObject,by);
-			}
-		}.waitForElement();
+		return resolve(StaleExceptionResolver.FIND_ELEMENT, by);
+	}
+	
+	/**
+	 * Searches inside this element on behalf of the driver, measured as a command of the driver.
+	 * @param by locator of the elements
+	 * @return elements found, encapsulated by WebElementAdapters
+	 * @see WebDriverAdapter#findElements(By)
+	 */
+	List<WebElement> findElementsForDriver(final By by) {
+		return resolve(StaleExceptionResolver.DRIVER_FIND_ELEMENTS, by);
+	}
+	
+	/**
+	 * Searches inside this element on behalf of the driver, measured as a command of the driver.
+	 * @param by locator of the element
+	 * @return element found, encapsulated by a WebElementAdapter
+	 * @see WebDriverAdapter#findElement(By)
+	 */
+	WebElement findElementForDriver(final By by) {
+		return resolve(StaleExceptionResolver.DRIVER_FIND_ELEMENT, by);
 	}
 
 	@Override
 	public boolean isDisplayed() {
-		return new StaleExceptionResolver<Boolean>() {
-			@Override
-			public Boolean execute(WebElement element) {
-				return element.isDisplayed();
-			}
-		}.waitForElement();
+		return resolve(StaleExceptionResolver.IS_DISPLAYED, null).booleanValue();
 	}
 
 	@Override
 	public Point getLocation() {
-		return (Point) (new StaleExceptionResolver<Point>() {
-			@Override
-			public Point execute(WebElement element) {
-				return element.getLocation();
-			}
-		}).waitForElement();
+		return resolve(StaleExceptionResolver.GET_LOCATION, null);
 	}
 
 	@Override
 	public Dimension getSize() {
-		return new StaleExceptionResolver<Dimension>() {
-			@Override
-			public Dimension execute(WebElement element) {
-				return element.getSize();
-			}
-		}.waitForElement();
+		return resolve(StaleExceptionResolver.GET_SIZE, null);
 	}
 
 	@Override
 	public String getCssValue(final String propertyName) {
-		return new StaleExceptionResolver<String>() {
-			@Override
-			public String execute(WebElement element) {
-				return element.getCssValue(propertyName);
+		return resolve(StaleExceptionResolver.GET_CSS_VALUE, propertyName);
+	}
+	
+	/**
+	 * This method tries to resolve the element, even when the DOM object
+	 * reference is lost. If occurs a StaleElementReferenceException and the position of
+	 * the element is known, the problem is solved and the element without reference is
+	 * overwrited by one with a reference. Althought, if the position is unknown, it throws the 
+	 * StaleElementReferenceException to be solved by the element method caller.
+	 * 
+	 * @param resolver
+	 *            command executed in the element
+	 * @param argument
+	 *            argument of the command, or null if it has none
+	 * @return return of the WebElementAdapter command executed. If there arent
+	 *         return in the WebElementAdapter method, it returns null.
+	 * @throws StaleElementReferenceException
+	 */
+	private <T> T resolve(final StaleExceptionResolver<T> resolver, final Object argument) {
+		long start = System.nanoTime();
+		try {
+			try {
+				return resolver.execute(this, this.element, argument);
+			} catch (StaleElementReferenceException staleException) {
+				
+				if (this.index < 0) {
+					throw staleException;
+				}
+				
+				return resolver.execute(this, recover(resolver.command), argument);
 			}
-		}.waitForElement();
+		} finally {
+			METRICS.record(resolver.command, start);
+		}
 	}
-
+	
 	/**
-	 * This class encapsules the StaleElementReferenceException treatment. If
-	 * the DOM reference is lost for a AJAX reload, the class tries to resolve
-	 * find another DOM object that represents the same HTML element. It's only
-	 * efective when the object was found by <b>findElement</b> method. Otherwise,
-	 * if the element was matched by the <b>findElements</b> method, the class
-	 * launch a exception and transfer the responsability to the caller method. 
+	 * Finds the element again, replacing its reference. It's used when a command that received
+	 * the element as argument found it without reference.
 	 * 
-	 * @author icaroclever
-	 * @param <T>
+	 * @param command
+	 *            command that found the element without reference
+	 * @return false if the position of the element is unknown, so it can't be found again
+	 */
+	boolean refresh(final Command command) {
+		if (this.index < 0) {
+			return false;
+		}
+		recover(command);
+		return true;
+	}
+	
+	/**
+	 * Waits until the element is found again, replacing the element without reference.
+	 * 
+	 * @param command
+	 *            command that found the element without reference
+	 * @return the element found
+	 */
+	private WebElement recover(final Command command) {
+		
+		ExpectedCondition<WebElement> resultsAreDisplayed = new ExpectedCondition<WebElement>() {
+			public WebElement apply(WebDriver driver) {
+				return reload(driver);
+			}
+		};
+		
+		WebDriver webDriver = (this.driver == null) ? SeleniumController.getDriver() : this.driver;
+		WebElement elementNew = null;
+		long start = System.nanoTime();
+		try {
+			elementNew = SeleniumWait.until(webDriver, SeleniumComponent.getDefaultTimeout(),
+					"WebElementAdapter.reload", resultsAreDisplayed);
+		} finally {
+			FlightRecorder.staleRecovery(command, this.locator, elementNew != null,
+					System.nanoTime() - start);
+		}
+		METRICS.staleRecovered();
+		
+		return elementNew;
+	}
+	
+	/**
+	 * Tries to find the element again. If all locators from the document to the element can be
+	 * reproduced by a script, the element and all its ancestors are found in a single command.
+	 * Otherwise, the element is searched by its parent and locator.
+	 * 
+	 * @param driver
+	 *            driver used when the element has no parent
+	 * @return the element found, or null if it's not in the page
 	 */
-	private abstract class StaleExceptionResolver<T> {
+	private WebElement reload(final WebDriver driver) {
 
-		/**
-		 * Contains Webdriver comands to be executed and threatned inside of the
-		 * waitForElement.
-		 * 
-		 * @param element
-		 *            Webdriver Element
-		 * @return 
-		 * 		return of the WebElementAdapter command executed. If there aren't return in the 
-		 * 		WebElementAdapter method, it returns null.
-		 */
-		public WebElement reload(WebDriver driver, WebElementAdapter parent, By locator) {
+		// the parent is known to be the html element or not without asking its tag name
+		if (this.parent != null) {
+			METRICS.commandSaved();
+		}
+		
+		LocatorPath path = getLocatorPath();
+		if (path != null && driver instanceof JavascriptExecutor) {
+			List<WebElement> found = path.relocate(driver);
+			if (found == null) {
+				return null;
+			}
+			replaceElements(found);
+			return this.element;
+		}
+		
+		List<WebElement> elements;
 
-			List<WebElement> elements;
+		if (this.parent == null || this.parent.isDocumentElement()) {
+			elements = driver.findElements(this.locator);
+		} else {
+			elements = this.parent.findElements(this.locator);
+		}
 
-			if (parent == null || parent.getTagName().equalsIgnoreCase("html")) {
-				elements = driver.findElements(locator);
-			} else {
-				elements = parent.findElements(locator);
+		if (elements.size() > this.index) {
+			this.element = elements.get(this.index);
+			forgetTagName();
+			if (this.owner != null) {
+				this.owner.documentReplaced(thisObject);
 			}
+			return this.element;
+		} else {
+			return null;
+		}
+	}
 
-			if (!elements.isEmpty()) {
-				element = elements.get(0);
-				return element;
-			} else {
-				return null;
+	/**
+	 * @return path of locators from the document to the element, or null if it can't be
+	 * 		found by a script
+	 */
+	private LocatorPath getLocatorPath() {
+		if (!this.locatorPathCreated) {
+			this.locatorPath = LocatorPath.of(this);
+			this.locatorPathCreated = true;
+		}
+		return this.locatorPath;
+	}
+	
+	/**
+	 * Replaces the elements of this adapter and its ancestors by the ones found again. The tag
+	 * names already known are forgotten, since a position may now hold another element.
+	 * 
+	 * @param found
+	 *            html element followed by the elements from the first ancestor below it to this one
+	 */
+	private void replaceElements(final List<WebElement> found) {
+		
+		WebElementAdapter node = this;
+		for (int i = found.size() - 1; i > 0; i--) {
+			node.element = found.get(i);
+			node.forgetTagName();
+			node = node.parent;
+		}
+		
+		// the html element is only replaced when the document itself was replaced
+		if (node != null && node.isDocumentElement() && !found.get(0).equals(node.element)) {
+			node.element = found.get(0);
+			if (node.owner != null) {
+				node.owner.documentReplaced(node);
 			}
 		}
+	}
+	
+	/**
+	 * Discards the tag name read from the element replaced. The tag of the html element is kept,
+	 * since it tells the element is the root of the document.
+	 */
+	private void forgetTagName() {
+		if (!isDocumentElement()) {
+			this.tagName = null;
+		}
+	}
+	
+	/**
+	 * This class encapsules the commands executed in the DOM objects. The commands are
+	 * stateless and shared by all adapters, so executing a command allocates nothing besides
+	 * what the command itself returns. The StaleElementReferenceException treatment is done
+	 * by {@link WebElementAdapter#resolve(StaleExceptionResolver, Object)}.
+	 * 
+	 * @author icaroclever
+	 * @param <T> return of the command
+	 */
+	private abstract static class StaleExceptionResolver<T> {
 		
-		/**
-		 * Contains Webdriver comands to be executed and threatned inside of the
-		 * waitForElement.
-		 * @param element 
-		 * 				Webdriver Element
-		 * @return
-		 * 		return of the WebElementAdapter command executed. If there arent return 
-		 * 		in the WebElementAdapter method, it returns null.
-		 */
-		public abstract T execute(WebElement element);
-
-		/**
-		 * This method tries to resolve the element, even when the DOM object
-		 * reference is lost. If the object is unique and occurs a StaleElementReferenceException,
-		 * the problem is solved and the element without reference is overwrited by one with
-		 * a reference. Althought, if the element is not unique, it throws the 
-		 * StaleElementReferenceException to be solved by the element method caller.
-		 * 
-		 * @param element
-		 *            Webdriver Element
-		 * @return return of the WebElementAdapter command executed. If there arent
-		 *         return in the WebElementAdapter method, it returns null.
-		 * @throws StaleElementReferenceException
-		 */
-		public T waitForElement(final WebDriver driver,
-				final WebElement element,
-				final WebElementAdapter parent, final By locator,
-				final Boolean isUnique) {
-			try {
-				return this.execute(element);
-			} catch (StaleElementReferenceException staleException) {
-				
-				if(!isUnique) {
-					throw staleException;
+		static final StaleExceptionResolver<Object> CLICK = new StaleExceptionResolver<Object>(Command.ELEMENT_CLICK) {
+			@Override
+			Object execute(WebElementAdapter adapter, WebElement element, Object argument) {
+				element.click();
+				return null;
+			}
+		};
+		
+		static final StaleExceptionResolver<Object> SUBMIT = new StaleExceptionResolver<Object>(Command.ELEMENT_SUBMIT) {
+			@Override
+			Object execute(WebElementAdapter adapter, WebElement element, Object argument) {
+				element.submit();
+				return null;
+			}
+		};
+		
+		static final StaleExceptionResolver<Object> SEND_KEYS = new StaleExceptionResolver<Object>(Command.ELEMENT_SEND_KEYS) {
+			@Override
+			Object execute(WebElementAdapter adapter, WebElement element, Object argument) {
+				element.sendKeys((CharSequence[]) argument);
+				return null;
+			}
+		};
+		
+		static final StaleExceptionResolver<Object> CLEAR = new StaleExceptionResolver<Object>(Command.ELEMENT_CLEAR) {
+			@Override
+			Object execute(WebElementAdapter adapter, WebElement element, Object argument) {
+				element.clear();
+				return null;
+			}
+		};
+		
+		static final StaleExceptionResolver<String> GET_TAG_NAME = new StaleExceptionResolver<String>(Command.ELEMENT_GET_TAG_NAME) {
+			@Override
+			String execute(WebElementAdapter adapter, WebElement element, Object argument) {
+				return element.getTagName();
+			}
+		};
+		
+		static final StaleExceptionResolver<String> GET_ATTRIBUTE = new StaleExceptionResolver<String>(Command.ELEMENT_GET_ATTRIBUTE) {
+			@Override
+			String execute(WebElementAdapter adapter, WebElement element, Object argument) {
+				return element.getAttribute((String) argument);
+			}
+		};
+		
+		static final StaleExceptionResolver<Boolean> IS_SELECTED = new StaleExceptionResolver<Boolean>(Command.ELEMENT_IS_SELECTED) {
+			@Override
+			Boolean execute(WebElementAdapter adapter, WebElement element, Object argument) {
+				return Boolean.valueOf(element.isSelected());
+			}
+		};
+		
+		static final StaleExceptionResolver<Boolean> IS_ENABLED = new StaleExceptionResolver<Boolean>(Command.ELEMENT_IS_ENABLED) {
+			@Override
+			Boolean execute(WebElementAdapter adapter, WebElement element, Object argument) {
+				return Boolean.valueOf(element.isEnabled());
+			}
+		};
+		
+		static final StaleExceptionResolver<String> GET_TEXT = new StaleExceptionResolver<String>(Command.ELEMENT_GET_TEXT) {
+			@Override
+			String execute(WebElementAdapter adapter, WebElement element, Object argument) {
+				return element.getText();
+			}
+		};
+		
+		static final StaleExceptionResolver<List<WebElement>> FIND_ELEMENTS = new StaleExceptionResolver<List<WebElement>>(Command.ELEMENT_FIND_ELEMENTS) {
+			@Override
+			List<WebElement> execute(WebElementAdapter adapter, WebElement element, Object argument) {
+				By by = (By) argument;
+				List<WebElement> found = element.findElements(by);
+				List<WebElement> elements = new ArrayList<WebElement>(found.size());
+				for (int i = 0; i < found.size(); i++) {
+					// encapsule the WebElements inside of a WebElementAdapter
+					elements.add(new WebElementAdapter(found.get(i), adapter, by, i)); 
 				}
-				
-				WebDriverWait wait = new WebDriverWait(driver,
-						SeleniumComponent.TIMEOUT);
-				ExpectedCondition<WebElement> resultsAreDisplayed = new ExpectedCondition<WebElement>() {
-					public WebElement apply(WebDriver driver) {
-						return reload(driver, parent, locator);
-					}
-				};
-				WebElement elementNew = wait.until(resultsAreDisplayed);
-				
-				return this.execute(elementNew);
+				return elements;
 			}
-		}
+		};
 		
+		static final StaleExceptionResolver<WebElement> FIND_ELEMENT = new StaleExceptionResolver<WebElement>(Command.ELEMENT_FIND_ELEMENT) {
+			@Override
+			WebElement execute(WebElementAdapter adapter, WebElement element, Object argument) {
+				By by = (By) argument;
+				return new WebElementAdapter(element.findElement(by), adapter, by);
+			}
+		};
+		
+		static final StaleExceptionResolver<List<WebElement>> DRIVER_FIND_ELEMENTS = new StaleExceptionResolver<List<WebElement>>(Command.FIND_ELEMENTS) {
+			@Override
+			List<WebElement> execute(WebElementAdapter adapter, WebElement element, Object argument) {
+				return FIND_ELEMENTS.execute(adapter, element, argument);
+			}
+		};
+		
+		static final StaleExceptionResolver<WebElement> DRIVER_FIND_ELEMENT = new StaleExceptionResolver<WebElement>(Command.FIND_ELEMENT) {
+			@Override
+			WebElement execute(WebElementAdapter adapter, WebElement element, Object argument) {
+				return FIND_ELEMENT.execute(adapter, element, argument);
+			}
+		};
+		
+		static final StaleExceptionResolver<Boolean> IS_DISPLAYED = new StaleExceptionResolver<Boolean>(Command.ELEMENT_IS_DISPLAYED) {
+			@Override
+			Boolean execute(WebElementAdapter adapter, WebElement element, Object argument) {
+				return Boolean.valueOf(element.isDisplayed());
+			}
+		};
+		
+		static final StaleExceptionResolver<Point> GET_LOCATION = new StaleExceptionResolver<Point>(Command.ELEMENT_GET_LOCATION) {
+			@Override
+			Point execute(WebElementAdapter adapter, WebElement element, Object argument) {
+				return element.getLocation();
+			}
+		};
+		
+		static final StaleExceptionResolver<Dimension> GET_SIZE = new StaleExceptionResolver<Dimension>(Command.ELEMENT_GET_SIZE) {
+			@Override
+			Dimension execute(WebElementAdapter adapter, WebElement element, Object argument) {
+				return element.getSize();
+			}
+		};
+		
+		static final StaleExceptionResolver<String> GET_CSS_VALUE = new StaleExceptionResolver<String>(Command.ELEMENT_GET_CSS_VALUE) {
+			@Override
+			String execute(WebElementAdapter adapter, WebElement element, Object argument) {
+				return element.getCssValue((String) argument);
+			}
+		};
+		
+		/** Command measured */
+		private final Command command;
+		
+		StaleExceptionResolver(final Command command) {
+			this.command = command;
+		}
+
 		/**
-		 * Method that encapsules the waitForElement superclass method, passing
-		 * all parameters necessary to execution, and increasing the
-		 * manutenability of the source-code.
+		 * Contains Webdriver comands to be executed and threatned inside of the
+		 * resolve method.
 		 * 
-		 * @return
+		 * @param adapter
+		 *            adapter that executes the command
+		 * @param element
+		 *            Webdriver Element
+		 * @param argument
+		 *            argument of the command, or null if it has none
+		 * @return 
+		 * 		return of the WebElementAdapter command executed. If there arent return 
+		 * 		in the WebElementAdapter method, it returns null.
 		 */
-		public T waitForElement() {
-			return waitForElement(SeleniumController.getDriver(), element, parent, locator,isUnique);
-		}
+		abstract T execute(WebElementAdapter adapter, WebElement element, Object argument);
 	}
 }
@@ -0,0 +1,152 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.builder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
+import br.ufmg.dcc.saotome.beholder.selenium.ui.SeleniumComponent;
+import br.ufmg.dcc.saotome.beholder.ui.Component;
+
+/**
+ * Loads several components of a page together. The locators are kept while the components
+ * are added, and {@link #resolve()} searches all elements with a single script, which also
+ * reads the tag names and attributes checked by the validations of each component. For
+ * example:
+ * <pre>
+ * builder.batchInstance()
+ *     .loadById(user, "user")
+ *     .loadByName(country, "country")
+ *     .loadById(send, "send")
+ *     .resolve();
+ * </pre>
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ * @see SeleniumUiComponentBuilder#batchInstance()
+ * @see SeleniumComponent#bindAll(java.util.Collection)
+ */
+public final class ComponentBatch {
+
+	/** Components added, in the order they were added */
+	private final List<SeleniumComponent> components = new ArrayList<SeleniumComponent>();
+	
+	ComponentBatch() {
+		// Hidden of outside package classes
+	}
+	
+	/**
+	 * Adds a component loaded by its id.
+	 * @param component component created by a Selenium builder
+	 * @param id id of the element
+	 * @return this batch
+	 */
+	public ComponentBatch loadById(final Component component, final String id) {
+		
+		SeleniumComponent seleniumComponent = defer(component);
+		boolean lazy = seleniumComponent.isLazy();
+		seleniumComponent.setLazy(true);
+		try {
+			seleniumComponent.loadById(id);
+		} finally {
+			seleniumComponent.setLazy(lazy);
+		}
+		return this;
+	}
+	
+	/**
+	 * Adds a component loaded by its name.
+	 * @param component component created by a Selenium builder
+	 * @param name name of the element
+	 * @return this batch
+	 */
+	public ComponentBatch loadByName(final Component component, final String name) {
+		
+		SeleniumComponent seleniumComponent = defer(component);
+		boolean lazy = seleniumComponent.isLazy();
+		seleniumComponent.setLazy(true);
+		try {
+			seleniumComponent.loadByName(name);
+		} finally {
+			seleniumComponent.setLazy(lazy);
+		}
+		return this;
+	}
+	
+	/**
+	 * Adds a component loaded by a XPath.
+	 * @param component component created by a Selenium builder
+	 * @param xpath XPath of the element
+	 * @return this batch
+	 */
+	public ComponentBatch loadByXPath(final Component component, final String xpath) {
+		
+		SeleniumComponent seleniumComponent = defer(component);
+		boolean lazy = seleniumComponent.isLazy();
+		seleniumComponent.setLazy(true);
+		try {
+			seleniumComponent.loadByXPath(xpath);
+		} finally {
+			seleniumComponent.setLazy(lazy);
+		}
+		return this;
+	}
+	
+	/**
+	 * Adds a component whose locator was already kept in lazy mode.
+	 * @param component component created by a Selenium builder
+	 * @return this batch
+	 */
+	public ComponentBatch add(final Component component) {
+		defer(component);
+		return this;
+	}
+	
+	private SeleniumComponent defer(final Component component) {
+		
+		if (!(component instanceof SeleniumComponent)) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_INVALID_PARAMETER, "component", component));
+		}
+		
+		SeleniumComponent seleniumComponent = (SeleniumComponent) component;
+		this.components.add(seleniumComponent);
+		return seleniumComponent;
+	}
+	
+	/**
+	 * Searches and validates the elements of all components added. The elements are searched
+	 * by a single script; the components not found by it are loaded one by one, with the
+	 * usual waits, so an element missing fails here as it would fail when loaded alone. The
+	 * batch is emptied even when a component fails, so it can be filled again.
+	 */
+	public void resolve() {
+		
+		try {
+			SeleniumComponent.bindAll(this.components);
+			for (SeleniumComponent component : this.components) {
+				if (component.isPending()) {
+					component.getElement();
+				}
+			}
+		} finally {
+			this.components.clear();
+		}
+	}
+}
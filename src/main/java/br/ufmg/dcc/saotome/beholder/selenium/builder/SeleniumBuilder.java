@@ -30,7 +30,8 @@ import br.ufmg.dcc.saotome.beholder.builder.ValidatorBuilder;
  * This class is a implementation of Builder interface to create
  * all the objects used to execute a test case. All objects
  * uses Selenium-Webdriver to find the component and interact with a
- * web browser, simulating actions of a system user.
+ * web browser, simulating actions of a system user. Components created
+ * by a builder use only the driver given to that builder.
  *
  * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
  * @see Builder
@@ -38,12 +39,12 @@ import br.ufmg.dcc.saotome.beholder.builder.ValidatorBuilder;
 public class SeleniumBuilder implements Builder {
 	
 	/** Browser driver that contains the application component search. */
-	private static WebDriver driver;
+	private final WebDriver driver;
 	
 	/** Getter to return  a browser driver
 	 * @return the browser driver
 	 */
-	static WebDriver getDriver() {
+	WebDriver getDriver() {
 		return driver;
 	}
 
@@ -52,12 +53,12 @@ public class SeleniumBuilder implements Builder {
 	 * @param driver Browser driver
 	 */
 	public SeleniumBuilder(WebDriver driver) {
-		SeleniumBuilder.driver = driver;
+		this.driver = driver;
 	}
 
     @Override
     public UiComponentBuilder uiComponentBuilderInstance() {
-        return new SeleniumUiComponentBuilder();
+        return new SeleniumUiComponentBuilder(driver);
     }
 
     @Override
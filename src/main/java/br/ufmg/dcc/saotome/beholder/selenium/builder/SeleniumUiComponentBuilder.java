@@ -19,6 +19,8 @@
  */
 package br.ufmg.dcc.saotome.beholder.selenium.builder;
 
+import org.openqa.selenium.WebDriver;
+
 import br.ufmg.dcc.saotome.beholder.builder.UiComponentBuilder;
 import br.ufmg.dcc.saotome.beholder.selenium.ui.SeleniumDiv;
 import br.ufmg.dcc.saotome.beholder.selenium.ui.SeleniumGenericComponent;
@@ -50,62 +52,74 @@ import br.ufmg.dcc.saotome.beholder.ui.table.Table;
  */
 public class SeleniumUiComponentBuilder implements UiComponentBuilder{
 	
-	SeleniumUiComponentBuilder() {
+	/** Browser driver used by the components created. */
+	private final WebDriver driver;
+	
+	SeleniumUiComponentBuilder(WebDriver driver) {
 		// Hidden of outside package classes
+		this.driver = driver;
 	}
 
     @Override
     public final Button buttonInstance() {
-        return new SeleniumButton(SeleniumBuilder.getDriver());
+        return new SeleniumButton(driver);
     }
 
     @Override
     public final TextField textFieldInstance() {
-        return new SeleniumTextField(SeleniumBuilder.getDriver());
+        return new SeleniumTextField(driver);
     }
 
     @Override
     public final Checkbox checkboxInstance() {
-        return new SeleniumCheckBoxField(SeleniumBuilder.getDriver());
+        return new SeleniumCheckBoxField(driver);
     }
 
     @Override
     public final RadioButton radioButtonInstance() {
-        return new SeleniumRadioButton(SeleniumBuilder.getDriver());
+        return new SeleniumRadioButton(driver);
     }
 
     @Override
     public final Select selectFieldInstance() {
-        return new SeleniumSelectField(SeleniumBuilder.getDriver());
+        return new SeleniumSelectField(driver);
     }
 
     @Override
     public Link linkInstance() {
-    	return new SeleniumLink(SeleniumBuilder.getDriver());
+    	return new SeleniumLink(driver);
     }
 
 	@Override
 	public GenericComponent genericComponentInstance() {
-		return new SeleniumGenericComponent(SeleniumBuilder.getDriver());
+		return new SeleniumGenericComponent(driver);
 	}
 
 	@Override
 	public TextArea textAreaInstance() {
-		return new SeleniumTextArea(SeleniumBuilder.getDriver());
+		return new SeleniumTextArea(driver);
 	}
 
 	@Override
 	public IFrame iFrameInstance() {
-		return new SeleniumIFrame(SeleniumBuilder.getDriver());
+		return new SeleniumIFrame(driver);
 	}
 
 	@Override
 	public Table tableInstance() {
-		return new SeleniumTable(SeleniumBuilder.getDriver());
+		return new SeleniumTable(driver);
 	}
 
 	@Override
 	public Div divInterface() {
-		return new SeleniumDiv(SeleniumBuilder.getDriver());
+		return new SeleniumDiv(driver);
+	}
+
+	/**
+	 * Creates a batch to load several components of a page with a single command.
+	 * @return a new batch
+	 */
+	public ComponentBatch batchInstance() {
+		return new ComponentBatch();
 	}
 }
@@ -24,14 +24,15 @@ import java.util.Map;
 import org.openqa.selenium.WebDriver;
 
 /**
- * This class holds parameters and variables commonly used in all system. 
+ * This class holds parameters and variables commonly used in all system. The driver is
+ * held by thread, so a listener called on a test thread sees the browser of that test.
  * @author icaroclever
  */
 public final class ListenerGateway {
 
-	private static WebDriver driver;
+	private static final ThreadLocal<WebDriver> driver = new ThreadLocal<WebDriver>();
 	
-	private static Map<String,String> parameters;
+	private static volatile Map<String,String> parameters;
 	
 	/**
 	 * @return the parameters
@@ -51,18 +52,22 @@ public final class ListenerGateway {
 	}
 
 	/**
-	 * Getter to return  a browser driver
+	 * Getter to return  the browser driver of the current thread
 	 * @return the browser driver
 	 */
 	static WebDriver getDriver() {
-		return driver;
+		return driver.get();
 	}
 	
 	/**
-	 * Setter to browser driver
+	 * Setter to browser driver of the current thread
 	 * @param driver Browser driver
 	 */
 	public static void setWebDriver(final WebDriver driver) {
-		ListenerGateway.driver = driver;
+		if (driver == null) {
+			ListenerGateway.driver.remove();
+		} else {
+			ListenerGateway.driver.set(driver);
+		}
 	}
 }
@@ -29,11 +29,13 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
 import org.testng.ITestResult;
 import org.testng.TestListenerAdapter;
 import org.testng.reporters.Files;
 
 import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
+import br.ufmg.dcc.saotome.beholder.selenium.message.WarnMessages;
 
 /**
  * This class listens tests that failed and take a PNG screenshot of the
@@ -44,6 +46,9 @@ import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
  * TESTNG_SCREENSHOTS_DIR
  * /ClassName/TestName-yyyy'-'MM'-'dd'_'HH'h'mm'm'ss's'.png
  * 
+ * The screenshot is taken from the browser of the thread that executed the failed test,
+ * so parallel tests don't capture each other's browsers.
+ * 
  * OBS: When there aren't a focused window to the driver take the screenshot,
  * for example an alert opened, the listener doesn't work and an exception is
  * throwed on the log.
@@ -62,9 +67,16 @@ public class ScreenshotListener extends TestListenerAdapter {
 			super.onTestFailure(tr);
 		}
 		
+		WebDriver driver = ListenerGateway.getDriver(); // driver of the failed test's thread
+		
+		if (driver == null) {
+			this.logger.warn(WarnMessages.WARN_NO_DRIVER_TO_SCREENSHOT);
+			return;
+		}
+		
 		try {
 			FileInputStream screenshot = new FileInputStream(
-					((TakesScreenshot) ListenerGateway.getDriver())
+					((TakesScreenshot) driver)
 							.getScreenshotAs(OutputType.FILE)); // Take the
 																// screenshot
 			File screenshotFile = createFile(tr, createFolder(tr));
@@ -42,5 +42,18 @@ public interface ErrorMessages {
 	
 	String ERROR_FOLDER_CANNOT_BE_CREATED = "Folder cannot be created";
 	
+	String ERROR_INVALID_PARAMETER = "The parameter '%s' has an invalid value: %s";
+	String ERROR_BROWSER_LAUNCH = "The browser could not be launched.";
+	String ERROR_BROWSER_QUIT = "The browser could not be closed.";
+	String ERROR_POOL_CLOSED = "The browser pool was already closed.";
+	
+	String ERROR_COLUMN_NOT_FOUND = "The column '%s' was not found in the table head.";
+	String ERROR_CELL_NOT_FOUND = "The cell of line %d and column %d was not found in the table.";
+	String ERROR_TABLE_WAIT_TIMEOUT = "The table did not change as expected in %d seconds.";
+	String ERROR_TABLE_DETACHED = "The table was removed from the page while its changes were waited.";
+	
+	String ERROR_OPTION_NOT_FOUND = "The option '%s' was not found in the select.";
+	String ERROR_SELECT_NOT_MULTIPLE = "The select does not allow multiple options.";
+	
 	String ERROR_UNKNOWN = "An unknown error happened in the Beholder Framework. Contact the tecnical suport.";
 }
@@ -29,4 +29,8 @@ public interface WarnMessages {
 	String WARN_LONG_SIZE_SCREENSHOT = "The system cannot take a screenshot because the " +
 			"dimensions of the PNG file is greater than maximum allowed. The problem usually happens when" +
 			"there are to much information in the webpage.";
+	
+	String WARN_BROWSER_RESET_FAILED = "The browser could not be reset to be reused, so it will be closed.";
+	
+	String WARN_NO_DRIVER_TO_SCREENSHOT = "The screenshot was not taken because there isn't a browser session in the test's thread.";
 }
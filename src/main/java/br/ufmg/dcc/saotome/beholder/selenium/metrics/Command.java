@@ -0,0 +1,72 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.metrics;
+
+/**
+ * Commands measured by the driver and element adapters.
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ * @see SeleniumMetrics
+ */
+public enum Command {
+	
+	// WebDriver commands
+	GET,
+	GET_CURRENT_URL,
+	GET_TITLE,
+	FIND_ELEMENT,
+	FIND_ELEMENTS,
+	FIND_ROOT_ELEMENT,
+	GET_PAGE_SOURCE,
+	CLOSE,
+	QUIT,
+	GET_WINDOW_HANDLES,
+	GET_WINDOW_HANDLE,
+	SWITCH_TO_FRAME,
+	SWITCH_TO_WINDOW,
+	SWITCH_TO_DEFAULT_CONTENT,
+	SWITCH_TO_PARENT_FRAME,
+	SWITCH_TO_ALERT,
+	GET_ACTIVE_ELEMENT,
+	NAVIGATE_BACK,
+	NAVIGATE_FORWARD,
+	NAVIGATE_TO,
+	NAVIGATE_REFRESH,
+	EXECUTE_SCRIPT,
+	EXECUTE_ASYNC_SCRIPT,
+	SCREENSHOT,
+	KILL,
+	
+	// WebElement commands
+	ELEMENT_CLICK,
+	ELEMENT_SUBMIT,
+	ELEMENT_SEND_KEYS,
+	ELEMENT_CLEAR,
+	ELEMENT_GET_TAG_NAME,
+	ELEMENT_GET_ATTRIBUTE,
+	ELEMENT_IS_SELECTED,
+	ELEMENT_IS_ENABLED,
+	ELEMENT_GET_TEXT,
+	ELEMENT_FIND_ELEMENTS,
+	ELEMENT_FIND_ELEMENT,
+	ELEMENT_IS_DISPLAYED,
+	ELEMENT_GET_LOCATION,
+	ELEMENT_GET_SIZE,
+	ELEMENT_GET_CSS_VALUE
+}
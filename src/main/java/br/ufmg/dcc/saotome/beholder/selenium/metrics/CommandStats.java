@@ -0,0 +1,158 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter and latency histogram of a command. The values are updated without locks, so many
+ * sessions can record the same command at the same time. The histogram has buckets of powers
+ * of two microseconds: the bucket i holds the executions that took less than 2^i microseconds
+ * and at least 2^(i-1), so the percentiles are estimated by the upper limit of the bucket.
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ * @see SeleniumMetrics
+ */
+public final class CommandStats {
+
+	/** Number of buckets of the histogram. The last one holds everything from 2^30 microseconds on. */
+	static final int BUCKETS = 32;
+	
+	private final Command command;
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong totalNanos = new AtomicLong();
+	private final AtomicLong maxNanos = new AtomicLong();
+	private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+	
+	CommandStats(final Command command) {
+		this.command = command;
+	}
+	
+	/**
+	 * Records an execution of the command.
+	 * @param nanos time spent by the execution, in nanoseconds
+	 */
+	void record(final long nanos) {
+		
+		this.count.incrementAndGet();
+		this.totalNanos.addAndGet(nanos);
+		this.histogram.incrementAndGet(bucket(nanos));
+		
+		long max = this.maxNanos.get();
+		while (nanos > max && !this.maxNanos.compareAndSet(max, nanos)) {
+			max = this.maxNanos.get();
+		}
+	}
+	
+	/** Clears the values recorded. */
+	void reset() {
+		this.count.set(0);
+		this.totalNanos.set(0);
+		this.maxNanos.set(0);
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			this.histogram.set(bucket, 0);
+		}
+	}
+	
+	private static int bucket(final long nanos) {
+		long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+		int bucket = 64 - Long.numberOfLeadingZeros(micros);
+		return Math.min(bucket, BUCKETS - 1);
+	}
+	
+	/**
+	 * @return the command measured
+	 */
+	public Command getCommand() {
+		return this.command;
+	}
+
+	/**
+	 * @return number of executions
+	 */
+	public long getCount() {
+		return this.count.get();
+	}
+	
+	/**
+	 * @return time spent by all executions, in nanoseconds
+	 */
+	public long getTotalNanos() {
+		return this.totalNanos.get();
+	}
+	
+	/**
+	 * @return time spent by the slowest execution, in nanoseconds
+	 */
+	public long getMaxNanos() {
+		return this.maxNanos.get();
+	}
+	
+	/**
+	 * @return average time of the executions, in nanoseconds
+	 */
+	public long getMeanNanos() {
+		long executions = getCount();
+		return (executions == 0) ? 0 : getTotalNanos() / executions;
+	}
+	
+	/**
+	 * Returns the number of executions of a histogram bucket.
+	 * @param bucket bucket index, from 0 to 31
+	 * @return executions that took less than 2^bucket microseconds and at least 2^(bucket-1)
+	 */
+	public long getBucketCount(final int bucket) {
+		return this.histogram.get(bucket);
+	}
+	
+	/**
+	 * Estimates a percentile of the execution time using the histogram.
+	 * @param percentile value between 0 and 100
+	 * @return upper limit, in microseconds, of the bucket that holds the percentile
+	 */
+	public long getPercentileMicros(final double percentile) {
+		
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException(String.format("Invalid percentile: %s", percentile));
+		}
+		
+		long[] buckets = new long[BUCKETS];
+		long total = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			buckets[bucket] = this.histogram.get(bucket);
+			total += buckets[bucket];
+		}
+		
+		if (total == 0) {
+			return 0;
+		}
+		
+		long rank = (long) Math.ceil(total * percentile / 100.0);
+		long accumulated = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			accumulated += buckets[bucket];
+			if (accumulated >= rank && accumulated > 0) {
+				return 1L << bucket;
+			}
+		}
+		return 1L << (BUCKETS - 1);
+	}
+}
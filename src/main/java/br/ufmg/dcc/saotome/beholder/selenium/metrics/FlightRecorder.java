@@ -0,0 +1,96 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.metrics;
+
+/**
+ * Emits Java Flight Recorder events of the commands, waits and stale recoveries. The events
+ * are only created when the JVM has Flight Recorder and a recording enabled them, so the
+ * methods cost nothing otherwise. In older JVMs, the methods do nothing.
+ * <p>The events are named br.ufmg.dcc.saotome.beholder.Command, br.ufmg.dcc.saotome.beholder.Wait
+ * and br.ufmg.dcc.saotome.beholder.StaleRecovery, under the category Beholder/Selenium.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ */
+public final class FlightRecorder {
+
+	/** True if the JVM has the Flight Recorder API */
+	private static final boolean AVAILABLE = isAvailable();
+	
+	/* Hidden Constructor */
+	private FlightRecorder() {}
+	
+	private static boolean isAvailable() {
+		try {
+			Class.forName("jdk.jfr.Event");
+			return true;
+		} catch (ClassNotFoundException e) {
+			return false;
+		} catch (LinkageError e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Emits the event of a command sent to the browser.
+	 * @param command command executed
+	 * @param elapsedNanos time spent by the command
+	 */
+	public static void command(final Command command, final long elapsedNanos) {
+		if (AVAILABLE) {
+			FlightRecorderEmitter.command(command, elapsedNanos);
+		}
+	}
+	
+	/**
+	 * @return true if a recording wants the events of the waits
+	 */
+	public static boolean isWaitEnabled() {
+		return AVAILABLE && FlightRecorderEmitter.isWaitEnabled();
+	}
+	
+	/**
+	 * Emits the event of a finished wait.
+	 * @param condition description of the condition waited
+	 * @param timeoutSeconds timeout of the wait
+	 * @param polls times the condition was evaluated
+	 * @param outcome how the wait finished
+	 * @param elapsedNanos time spent waiting
+	 */
+	public static void waitFinished(final String condition, final long timeoutSeconds, final int polls,
+			final WaitOutcome outcome, final long elapsedNanos) {
+		if (AVAILABLE) {
+			FlightRecorderEmitter.waitFinished(condition, timeoutSeconds, polls, outcome, elapsedNanos);
+		}
+	}
+	
+	/**
+	 * Emits the event of an element located again after losing its DOM reference.
+	 * @param command command that found the stale reference
+	 * @param locator locator used to find the element again
+	 * @param recovered true if the element was found
+	 * @param elapsedNanos time spent finding the element
+	 */
+	public static void staleRecovery(final Command command, final Object locator, final boolean recovered,
+			final long elapsedNanos) {
+		if (AVAILABLE) {
+			FlightRecorderEmitter.staleRecovery(command, locator, recovered, elapsedNanos);
+		}
+	}
+}
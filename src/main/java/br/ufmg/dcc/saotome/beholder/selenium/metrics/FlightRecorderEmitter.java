@@ -0,0 +1,69 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.metrics;
+
+/**
+ * Creates and commits the Flight Recorder events. This class is only loaded by
+ * {@link FlightRecorder} when the jdk.jfr module exists in the JVM.
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ */
+final class FlightRecorderEmitter {
+
+	/* Hidden Constructor */
+	private FlightRecorderEmitter() {}
+	
+	static void command(final Command command, final long elapsedNanos) {
+		CommandEvent event = new CommandEvent();
+		if (event.shouldCommit()) {
+			event.command = command.name();
+			event.elapsed = elapsedNanos;
+			event.commit();
+		}
+	}
+	
+	static boolean isWaitEnabled() {
+		return new WaitEvent().isEnabled();
+	}
+	
+	static void waitFinished(final String condition, final long timeoutSeconds, final int polls,
+			final WaitOutcome outcome, final long elapsedNanos) {
+		WaitEvent event = new WaitEvent();
+		if (event.shouldCommit()) {
+			event.condition = condition;
+			event.timeout = timeoutSeconds;
+			event.polls = polls;
+			event.outcome = outcome.name();
+			event.elapsed = elapsedNanos;
+			event.commit();
+		}
+	}
+	
+	static void staleRecovery(final Command command, final Object locator, final boolean recovered,
+			final long elapsedNanos) {
+		StaleRecoveryEvent event = new StaleRecoveryEvent();
+		if (event.shouldCommit()) {
+			event.command = command.name();
+			event.locator = String.valueOf(locator);
+			event.recovered = recovered;
+			event.elapsed = elapsedNanos;
+			event.commit();
+		}
+	}
+}
@@ -0,0 +1,239 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.metrics;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
+
+/**
+ * Metrics of the commands sent to the browsers by all sessions. Every command of the driver and
+ * element adapters is counted and has its latency recorded in a histogram. The values can be read
+ * by the methods of this class or written in a JSON or CSV file. The recording uses only atomic
+ * operations, so it's safe and cheap when the sessions run in parallel.
+ * <p>If the suite parameter <b>metricsFile</b> is informed, the metrics are written in that file
+ * when the suite finishes. Files ending with .csv receive CSV, the others receive JSON. Both
+ * formats end their lines with '\n' on every platform.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ * @see Command
+ * @see CommandStats
+ */
+public final class SeleniumMetrics {
+
+	private static final SeleniumMetrics INSTANCE = new SeleniumMetrics();
+	
+	private static final String CSV_HEADER = "command,count,total_ms,mean_ms,max_ms,p50_ms,p90_ms,p99_ms";
+	
+	/** Statistics indexed by the command ordinal */
+	private final CommandStats[] stats;
+	/** Commands that were not sent to the browser because a cached value was used */
+	private final AtomicLong savedCommands = new AtomicLong();
+	/** Elements found again after losing their DOM reference */
+	private final AtomicLong staleRecoveries = new AtomicLong();
+	
+	/* Hidden Constructor */
+	private SeleniumMetrics() {
+		Command[] commands = Command.values();
+		this.stats = new CommandStats[commands.length];
+		for (Command command : commands) {
+			this.stats[command.ordinal()] = new CommandStats(command);
+		}
+	}
+	
+	/**
+	 * Returns the metrics of the suite.
+	 * @return the metrics
+	 */
+	public static SeleniumMetrics getInstance() {
+		return INSTANCE;
+	}
+	
+	/**
+	 * Records an execution of a command. It's also emitted as a Flight Recorder event.
+	 * @param command command executed
+	 * @param startNanos value of System.nanoTime() when the command started
+	 */
+	public void record(final Command command, final long startNanos) {
+		long elapsed = System.nanoTime() - startNanos;
+		this.stats[command.ordinal()].record(elapsed);
+		FlightRecorder.command(command, elapsed);
+	}
+	
+	/** Counts a command that was not sent to the browser because a cached value was used. */
+	public void commandSaved() {
+		this.savedCommands.incrementAndGet();
+	}
+	
+	/** Counts an element found again after losing its DOM reference. */
+	public void staleRecovered() {
+		this.staleRecoveries.incrementAndGet();
+	}
+	
+	/**
+	 * Returns the statistics of a command.
+	 * @param command command measured
+	 * @return statistics of the command
+	 */
+	public CommandStats getStats(final Command command) {
+		return this.stats[command.ordinal()];
+	}
+	
+	/**
+	 * Returns the statistics of the commands executed at least once.
+	 * @return list of statistics, in the order of the Command enumeration
+	 */
+	public List<CommandStats> getExecutedStats() {
+		List<CommandStats> executed = new ArrayList<CommandStats>();
+		for (CommandStats commandStats : this.stats) {
+			if (commandStats.getCount() > 0) {
+				executed.add(commandStats);
+			}
+		}
+		return Collections.unmodifiableList(executed);
+	}
+	
+	/**
+	 * @return commands that were not sent to the browser because a cached value was used
+	 */
+	public long getSavedCommands() {
+		return this.savedCommands.get();
+	}
+	
+	/**
+	 * @return elements found again after losing their DOM reference
+	 */
+	public long getStaleRecoveries() {
+		return this.staleRecoveries.get();
+	}
+	
+	/** Clears all values recorded. */
+	public void reset() {
+		for (CommandStats commandStats : this.stats) {
+			commandStats.reset();
+		}
+		this.savedCommands.set(0);
+		this.staleRecoveries.set(0);
+	}
+	
+	/**
+	 * Returns the metrics in CSV format, one line per command executed.
+	 * @return CSV text
+	 */
+	public String toCsv() {
+		
+		StringBuilder csv = new StringBuilder(CSV_HEADER).append('\n');
+		
+		for (CommandStats commandStats : getExecutedStats()) {
+			csv.append(String.format(Locale.US, "%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f\n",
+					commandStats.getCommand().name(),
+					commandStats.getCount(),
+					millis(commandStats.getTotalNanos()),
+					millis(commandStats.getMeanNanos()),
+					millis(commandStats.getMaxNanos()),
+					commandStats.getPercentileMicros(50) / 1000.0,
+					commandStats.getPercentileMicros(90) / 1000.0,
+					commandStats.getPercentileMicros(99) / 1000.0));
+		}
+		return csv.toString();
+	}
+	
+	/**
+	 * Returns the metrics in JSON format.
+	 * @return JSON text
+	 */
+	public String toJson() {
+		
+		StringBuilder json = new StringBuilder("{\n");
+		json.append(String.format("  \"savedCommands\": %d,\n", getSavedCommands()));
+		json.append(String.format("  \"staleRecoveries\": %d,\n", getStaleRecoveries()));
+		json.append("  \"commands\": [");
+		
+		String separator = "\n";
+		for (CommandStats commandStats : getExecutedStats()) {
+			json.append(separator);
+			json.append(String.format(Locale.US, 
+					"    {\"command\": \"%s\", \"count\": %d, \"totalMs\": %.3f, \"meanMs\": %.3f, \"maxMs\": %.3f, " +
+					"\"p50Ms\": %.3f, \"p90Ms\": %.3f, \"p99Ms\": %.3f, \"histogramMicros\": %s}",
+					commandStats.getCommand().name(),
+					commandStats.getCount(),
+					millis(commandStats.getTotalNanos()),
+					millis(commandStats.getMeanNanos()),
+					millis(commandStats.getMaxNanos()),
+					commandStats.getPercentileMicros(50) / 1000.0,
+					commandStats.getPercentileMicros(90) / 1000.0,
+					commandStats.getPercentileMicros(99) / 1000.0,
+					histogramJson(commandStats)));
+			separator = ",\n";
+		}
+		json.append("\n  ]\n}\n");
+		return json.toString();
+	}
+	
+	/**
+	 * Writes the metrics in a file. Files ending with .csv receive CSV, the others receive JSON.
+	 * @param file destination file
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writeTo(final File file) throws IOException {
+		
+		String content = file.getName().toLowerCase(Locale.US).endsWith(".csv") ? toCsv() : toJson();
+		
+		File folder = file.getAbsoluteFile().getParentFile();
+		if (folder != null && !folder.exists() && !folder.mkdirs()) {
+			throw new IOException(ErrorMessages.ERROR_FOLDER_CANNOT_BE_CREATED);
+		}
+		
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			writer.write(content);
+		} finally {
+			writer.close();
+		}
+	}
+	
+	/** Histogram as a JSON object, where each key is the upper limit of the bucket in microseconds. */
+	private static String histogramJson(final CommandStats commandStats) {
+		
+		StringBuilder json = new StringBuilder("{");
+		String separator = "";
+		for (int bucket = 0; bucket < CommandStats.BUCKETS; bucket++) {
+			long count = commandStats.getBucketCount(bucket);
+			if (count > 0) {
+				json.append(separator).append('"').append(1L << bucket).append("\": ").append(count);
+				separator = ", ";
+			}
+		}
+		return json.append('}').toString();
+	}
+	
+	private static double millis(final long nanos) {
+		return nanos / 1000000.0;
+	}
+}
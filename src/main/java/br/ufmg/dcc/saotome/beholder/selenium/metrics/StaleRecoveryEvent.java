@@ -0,0 +1,51 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event of an element found again after losing its DOM reference.
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ */
+@Name("br.ufmg.dcc.saotome.beholder.StaleRecovery")
+@Label("Selenium Stale Recovery")
+@Category({"Beholder", "Selenium"})
+@Description("Element located again after a StaleElementReferenceException")
+final class StaleRecoveryEvent extends Event {
+
+	@Label("Command")
+	String command;
+	
+	@Label("Locator")
+	String locator;
+	
+	@Label("Recovered")
+	boolean recovered;
+	
+	@Label("Elapsed")
+	@Timespan(Timespan.NANOSECONDS)
+	long elapsed;
+}
@@ -0,0 +1,56 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event of a wait for a condition in the browser.
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ */
+@Name("br.ufmg.dcc.saotome.beholder.Wait")
+@Label("Selenium Wait")
+@Category({"Beholder", "Selenium"})
+@Description("Wait for a condition in the browser")
+final class WaitEvent extends Event {
+
+	@Label("Condition")
+	String condition;
+	
+	@Label("Timeout")
+	@Timespan(Timespan.SECONDS)
+	long timeout;
+	
+	@Label("Polls")
+	@Description("Times the condition was evaluated")
+	int polls;
+	
+	@Label("Outcome")
+	String outcome;
+	
+	@Label("Elapsed")
+	@Timespan(Timespan.NANOSECONDS)
+	long elapsed;
+}
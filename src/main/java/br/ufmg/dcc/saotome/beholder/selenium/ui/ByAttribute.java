@@ -0,0 +1,142 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.ui;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.internal.WrapsDriver;
+
+import br.ufmg.dcc.saotome.beholder.selenium.BatchLocator;
+import br.ufmg.dcc.saotome.beholder.selenium.ScriptableLocator;
+import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
+
+/**
+ * Locates the elements of a tag whose attribute is equal to a value, ignoring the case. The
+ * comparison runs inside the browser with a single script, instead of reading the attribute
+ * of each element of the tag. The attribute is read as WebElement.getAttribute reads it: the
+ * property of the element is preferred to the attribute written in the page, so a link
+ * compares its absolute href and boolean attributes are "true" or absent.
+ * <p>Contexts that can't run scripts compare the elements one by one, with the same result.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ * @see SeleniumComponent#loadByAttribute(String, String, String)
+ */
+final class ByAttribute extends By implements ScriptableLocator {
+
+	/** Finds the elements. The arguments are the root element (or null to search the whole
+	 * document), the tag, the attribute name and the value. */
+	private static final String MATCH_SCRIPT =
+			BatchLocator.ATTRIBUTE_FUNCTION
+			+ "var elements = (arguments[0] || document).getElementsByTagName(arguments[1]), found = [];"
+			+ "for (var i = 0; i < elements.length; i++) {"
+			+ "  var value = attribute(elements[i], arguments[2]);"
+			+ "  if (value !== null && value !== undefined && same(String(value), arguments[3])) { found.push(elements[i]); }"
+			+ "}"
+			+ "return found;";
+	
+	private final String tagName;
+	private final String attributeName;
+	private final String value;
+	
+	/**
+	 * @param tagName tag of the elements
+	 * @param attributeName name of the attribute
+	 * @param value value of the attribute, compared ignoring the case
+	 */
+	ByAttribute(final String tagName, final String attributeName, final String value) {
+		
+		if (tagName == null) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"tagName"));
+		}
+		if (attributeName == null || attributeName.isEmpty()) {
+			throw new IllegalArgumentException(ErrorMessages.ERROR_ATTRIBUTE_EMPTY);
+		}
+		if (value == null) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"value"));
+		}
+		
+		this.tagName = tagName;
+		this.attributeName = attributeName;
+		this.value = value;
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<WebElement> findElements(final SearchContext context) {
+		
+		JavascriptExecutor executor = null;
+		WebElement root = null;
+		if (context instanceof JavascriptExecutor) {
+			executor = (JavascriptExecutor) context;
+		} else if (context instanceof WebElement && context instanceof WrapsDriver) {
+			WebDriver driver = ((WrapsDriver) context).getWrappedDriver();
+			if (driver instanceof JavascriptExecutor) {
+				executor = (JavascriptExecutor) driver;
+				root = (WebElement) context;
+			}
+		}
+		
+		if (executor == null) {
+			return compare(context);
+		}
+		
+		List<WebElement> found = (List<WebElement>) executor.executeScript(MATCH_SCRIPT,
+				root, this.tagName, this.attributeName, this.value);
+		return (found == null) ? new ArrayList<WebElement>() : found;
+	}
+	
+	/**
+	 * Compares the elements of the tag one by one, as SeleniumComponent did before the
+	 * comparison was made by a script.
+	 */
+	private List<WebElement> compare(final SearchContext context) {
+		
+		List<WebElement> found = new ArrayList<WebElement>();
+		for (WebElement element : context.findElements(By.tagName(this.tagName))) {
+			String attribute = element.getAttribute(this.attributeName);
+			if (attribute != null && attribute.equalsIgnoreCase(this.value)) {
+				found.add(element);
+			}
+		}
+		return found;
+	}
+	
+	@Override
+	public String getScriptType() {
+		return "attribute";
+	}
+	
+	@Override
+	public Object getScriptValue() {
+		return Arrays.asList(this.tagName, this.attributeName, this.value);
+	}
+	
+	@Override
+	public String toString() {
+		return "By.attribute: " + this.tagName + "[" + this.attributeName + "=" + this.value + "]";
+	}
+}
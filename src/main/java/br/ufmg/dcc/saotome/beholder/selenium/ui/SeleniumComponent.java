@@ -20,18 +20,28 @@
 package br.ufmg.dcc.saotome.beholder.selenium.ui;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
+import br.ufmg.dcc.saotome.beholder.selenium.BatchLocator;
+import br.ufmg.dcc.saotome.beholder.selenium.Deadline;
+import br.ufmg.dcc.saotome.beholder.selenium.ElementDescriptor;
+import br.ufmg.dcc.saotome.beholder.selenium.SeleniumWait;
 import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
 import br.ufmg.dcc.saotome.beholder.ui.Component;
 
@@ -77,11 +87,22 @@ public abstract  class SeleniumComponent implements Component {
 	private SeleniumComponent parent;
 	private Boolean isDisplayed = true;
 	private Locator locator;
+	/** In lazy mode, loadById, loadByName and loadByXPath only keep the locator */
+	private boolean lazy;
+	/** The locator was kept in lazy mode and the element was not searched yet */
+	private boolean pending;
 	
-	/** Maximum wait for a component */
+	/** Maximum wait for a component, when neither the suite nor the component inform another */
 	public static final long TIMEOUT = 30;// seconds
+	
+	/** Maximum wait of the components without a timeout of their own, in seconds */
+	private static volatile long defaultTimeout = TIMEOUT;
+	/** Maximum wait of this component, in seconds, or null to use the default timeout */
+	private Long timeout;
 
 	private WebElement element;
+	/** Information read with the element, used by the validations while the element is set */
+	private ElementDescriptor descriptor;
 	private Map<String, String> attributes = new HashMap<String, String>();
 
 	public SeleniumComponent(final WebDriver driver) {
@@ -95,6 +116,9 @@ public abstract  class SeleniumComponent implements Component {
 	 * @return WebElement element
 	 */
 	public final WebElement getElement() {
+		if (this.pending) {
+			bind();
+		}
 		return this.element;
 	}
 
@@ -115,6 +139,253 @@ public abstract  class SeleniumComponent implements Component {
 		validateElementTag();
 		validateAttributes();
 	}
+	
+	/**
+	 * Sets the element found together with its tag name and attributes. The validations
+	 * use the information of the descriptor, without sending commands to the browser.
+	 * 
+	 * @param descriptor element and the information read with it
+	 */
+	public final void setElement(final ElementDescriptor descriptor) {
+		
+		if (descriptor == null) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"descriptor"));
+		}
+		
+		this.descriptor = descriptor;
+		try {
+			setElement(descriptor.getElement());
+		} finally {
+			this.descriptor = null;
+		}
+	}
+	
+	/**
+	 * Returns the tag name of the element. While the element is set by a descriptor, the tag
+	 * name read with it is used.
+	 * 
+	 * @return tag name of the element
+	 */
+	protected final String getTagName() {
+		if (this.descriptor != null) {
+			return this.descriptor.getTagName();
+		}
+		return getElement().getTagName();
+	}
+	
+	/**
+	 * @return names of the attributes read by the validations: the type and the attributes
+	 * 		stored by the component
+	 */
+	private Set<String> getValidatedAttributes() {
+		Set<String> names = new HashSet<String>(this.attributes.keySet());
+		names.remove("xpath");
+		names.add("type");
+		return names;
+	}
+
+	/**
+	 * @return maximum wait, in seconds, of the components without a timeout of their own
+	 */
+	public static long getDefaultTimeout() {
+		return defaultTimeout;
+	}
+	
+	/**
+	 * Changes the maximum wait of the components without a timeout of their own. The suite
+	 * parameter timeout calls this method when the suite starts.
+	 * @param seconds maximum wait, in seconds
+	 */
+	public static void setDefaultTimeout(final long seconds) {
+		
+		if (seconds < 0) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_INVALID_PARAMETER, "seconds", seconds));
+		}
+		defaultTimeout = seconds;
+	}
+	
+	/**
+	 * @return maximum wait of this component, in seconds
+	 */
+	public long getTimeout() {
+		return (this.timeout == null) ? defaultTimeout : this.timeout;
+	}
+	
+	/**
+	 * Changes the maximum wait of this component. Each operation of the component has a
+	 * single deadline, shared by all waits nested in it.
+	 * @param seconds maximum wait, in seconds
+	 * @see br.ufmg.dcc.saotome.beholder.selenium.Deadline
+	 */
+	public void setTimeout(final long seconds) {
+		
+		if (seconds < 0) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_INVALID_PARAMETER, "seconds", seconds));
+		}
+		this.timeout = seconds;
+	}
+	
+	/**
+	 * Turns the lazy mode on or off. In lazy mode, loadById, loadByName and loadByXPath only
+	 * keep the locator, and the element is searched and validated when the component is used
+	 * for the first time or when it is bound by {@link #bindAll(Collection)}. Components that
+	 * are never used send no command to the browser.
+	 * @param lazy true to search the elements only when they are needed
+	 */
+	public void setLazy(final boolean lazy) {
+		this.lazy = lazy;
+	}
+	
+	/**
+	 * @return true if the component searches its element only when it is needed
+	 */
+	public boolean isLazy() {
+		return this.lazy;
+	}
+	
+	/**
+	 * @return true if the component has a locator whose element was not searched yet
+	 */
+	public boolean isPending() {
+		return this.pending;
+	}
+	
+	/**
+	 * Searches the element of a pending component, with the same waits and validations of
+	 * the eager mode. The element is searched by a script that also reads its tag name and
+	 * the attributes validated; only when the script doesn't find it the WebDriver commands
+	 * and their waits are used. Each of these commands may also wait the implicit wait of the
+	 * driver, which the {@link Deadline} of the waits doesn't bound.
+	 */
+	private void bind() {
+		
+		this.pending = false;
+		try {
+			ElementDescriptor descriptor = describe(getBy());
+			switch (this.locator.loadBy) {
+				case ID:
+				case NAME:
+					if (descriptor != null) {
+						setElement(descriptor);
+					} else {
+						setElement(selenium.findElement(getBy()));
+					}
+					break;
+				case XPATH:
+					if (descriptor != null && descriptor.isDisplayed()) {
+						setElement(descriptor);
+						break;
+					}
+					SeleniumWait.until(getSeleniumWebDriver(), getTimeout(), "SeleniumComponent.loadByXPath",
+							ExpectedConditions.visibilityOf(getSeleniumWebDriver().findElement(By.xpath(this.locator.value))));
+					setElement(getSeleniumWebDriver().findElement(By.xpath(this.locator.value)));
+					break;
+				case ATTRIBUTE:
+					break;
+			}
+		} catch (RuntimeException re) {
+			// in lazy mode the element is searched again when the component is used again
+			this.pending = this.lazy;
+			throw re;
+		}
+	}
+	
+	/**
+	 * Binds the pending components together. The elements of all pending components of a
+	 * driver are searched by a single script, which also reads the tag name and attributes
+	 * checked by the validations, so the validations send no command to the browser.
+	 * Components whose elements are not found, or are found hidden when loaded by XPath, stay
+	 * pending and are searched, with the usual waits, when they are used.
+	 * @param components components of a page, pending or not
+	 */
+	public static void bindAll(final Collection<? extends Component> components) {
+		
+		if (components == null) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"components"));
+		}
+		
+		Map<WebDriver, List<SeleniumComponent>> pendingByDriver = new LinkedHashMap<WebDriver, List<SeleniumComponent>>();
+		for (Component component : components) {
+			if (component instanceof SeleniumComponent && ((SeleniumComponent) component).pending) {
+				SeleniumComponent seleniumComponent = (SeleniumComponent) component;
+				List<SeleniumComponent> pending = pendingByDriver.get(seleniumComponent.selenium);
+				if (pending == null) {
+					pending = new ArrayList<SeleniumComponent>();
+					pendingByDriver.put(seleniumComponent.selenium, pending);
+				}
+				pending.add(seleniumComponent);
+			}
+		}
+		
+		for (Entry<WebDriver, List<SeleniumComponent>> entry : pendingByDriver.entrySet()) {
+			List<SeleniumComponent> pending = entry.getValue();
+			List<By> locators = new ArrayList<By>(pending.size());
+			List<Set<String>> attributeNames = new ArrayList<Set<String>>(pending.size());
+			for (SeleniumComponent component : pending) {
+				locators.add(component.getBy());
+				attributeNames.add(component.getValidatedAttributes());
+			}
+			
+			List<ElementDescriptor> descriptors = BatchLocator.findAll(entry.getKey(), locators, attributeNames);
+			for (int index = 0; index < pending.size(); index++) {
+				SeleniumComponent component = pending.get(index);
+				ElementDescriptor descriptor = descriptors.get(index);
+				boolean bindable = descriptor != null
+						&& (descriptor.isDisplayed() || component.locator.loadBy != Locator.LocatorType.XPATH);
+				if (bindable) {
+					component.pending = false;
+					try {
+						component.setElement(descriptor);
+					} catch (RuntimeException re) {
+						component.pending = true;
+						throw re;
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @see #bindAll(Collection)
+	 */
+	public static void bindAll(final Component... components) {
+		
+		if (components == null) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"components"));
+		}
+		bindAll(Arrays.asList(components));
+	}
+	
+	/**
+	 * Searches the first element of a locator together with the tag name and the attributes
+	 * checked by the validations of this component.
+	 * @param by locator of the element
+	 * @param extraAttributes attributes read besides the validated ones
+	 * @return the element and its information, or null if the element was not found or the
+	 * 		driver doesn't run scripts
+	 */
+	private ElementDescriptor describe(final By by, final String... extraAttributes) {
+		Set<String> attributeNames = getValidatedAttributes();
+		attributeNames.addAll(Arrays.asList(extraAttributes));
+		return BatchLocator.findAll(this.selenium, Collections.singletonList(by),
+				Collections.singletonList(attributeNames)).get(0);
+	}
+	
+	/**
+	 * @return the locator of the element, as a WebDriver locator
+	 */
+	private By getBy() {
+		switch (this.locator.loadBy) {
+			case ID:
+				return By.id(this.locator.value);
+			case NAME:
+				return By.name(this.locator.value);
+			case XPATH:
+				return By.xpath(this.locator.value);
+			default:
+				return new ByAttribute(this.locator.tagName, this.locator.attributeName, this.locator.value);
+		}
+	}
 
 	@Override
 	public String getAttribute(final String attribute) {
@@ -125,6 +396,9 @@ public abstract  class SeleniumComponent implements Component {
 		if (attribute == null || attribute.isEmpty()){
 			throw new IllegalArgumentException(ErrorMessages.ERROR_ATTRIBUTE_EMPTY);
 		}
+		if (this.descriptor != null && this.descriptor.hasAttribute(attribute)) {
+			return this.descriptor.getAttribute(attribute);
+		}
 		
 		return this.getElement().getAttribute(attribute);
 	}
@@ -149,34 +423,51 @@ public abstract  class SeleniumComponent implements Component {
 
 		this.locator = new Locator(tagName, attributeName,
 				value);
+		final By byAttribute = new ByAttribute(tagName, attributeName, value);
 
 		if (this.isDisplayed) {
-			WebDriverWait wait = new WebDriverWait(getSeleniumWebDriver(),
-					TIMEOUT);
 			ExpectedCondition<Boolean> resultsAreDisplayed = new ExpectedCondition<Boolean>() {
 
 				public Boolean apply(WebDriver arg0) {
-					List<WebElement> elements = getSeleniumWebDriver()
-							.findElements(By.tagName(tagName));
-					for (WebElement el : elements) {
-						if ((el.getAttribute(attributeName) != null)
-								&& (el.getAttribute(attributeName)
-										.equalsIgnoreCase(value))) {
+					if (getSeleniumWebDriver() instanceof JavascriptExecutor) {
+						ElementDescriptor descriptor = describe(byAttribute, attributeName);
+						if (descriptor != null) {
+							// the element has the new value, so a previous one isn't validated
+							String previous = attributes.remove(attributeName);
+							try {
+								setElement(descriptor);
+							} catch (RuntimeException re) {
+								if (previous != null) {
+									attributes.put(attributeName, previous);
+								}
+								throw re;
+							}
 							setAttribute(attributeName, value);
-							setElement(el);
 							return true;
 						}
+						return false;
+					}
+					List<WebElement> elements = getSeleniumWebDriver()
+							.findElements(byAttribute);
+					if (!elements.isEmpty()) {
+						setAttribute(attributeName, value);
+						setElement(elements.get(0));
+						return true;
 					}
 					return false;
 				}
 
 			};
-			wait.until(resultsAreDisplayed);
+			SeleniumWait.until(getSeleniumWebDriver(), getTimeout(), "SeleniumComponent.loadByAttribute", resultsAreDisplayed);
 		}
 	}
 	
   
 	
+	/**
+	 * {@inheritDoc} The elements are searched and validated with WebDriver commands, each of
+	 * which may also wait the implicit wait of the driver beyond the {@link Deadline} of the wait.
+	 */
 	@Override
 	public <T extends Component,  Y extends T> List<T> loadByAttribute(Class<Y> type, final String IdFather, final String tagName, 
 			final String attributeName, final String value) {
@@ -187,40 +478,35 @@ public abstract  class SeleniumComponent implements Component {
 				value);
 		
 		if (this.isDisplayed) {
-			WebDriverWait wait = new WebDriverWait(getSeleniumWebDriver(),
-					TIMEOUT);
-		
-			wait.until(ExpectedConditions.presenceOfAllElementsLocatedBy(By.tagName(tagName)));
+			SeleniumWait.until(getSeleniumWebDriver(), getTimeout(), "SeleniumComponent.loadByAttribute",
+					ExpectedConditions.presenceOfAllElementsLocatedBy(By.tagName(tagName)));
 			List<WebElement> elements;
+			By byAttribute = new ByAttribute(tagName, attributeName, value);
 			
 			if (IdFather == null){
 				elements  =  getSeleniumWebDriver()
-					.findElements(By.tagName(tagName));
+					.findElements(byAttribute);
 			} else {
 				elements = getSeleniumWebDriver().findElement(By.id(IdFather)).
-						findElements(By.tagName(tagName));
+						findElements(byAttribute);
 			}	
 			
 			for (WebElement el : elements) {
-				if ((el.getAttribute(attributeName) != null)
-						&& (el.getAttribute(attributeName)
-								.equalsIgnoreCase(value))) {	
-						T sc = null;
+				T sc = null;
+		
+				try {
+					// Use of reflection for instantiate sc 
+					// this equivalent the get an instance of Builder.uiComponentBuilderInstance()
+					sc =  	(T) type.getDeclaredConstructor(
+							WebDriver.class).newInstance(getSeleniumWebDriver());
 				
-						try {
-							// Use of reflection for instantiate sc 
-							// this equivalent the get an instance of Builder.uiComponentBuilderInstance()
-							sc =  	(T) type.getDeclaredConstructor(
-									WebDriver.class).newInstance(getSeleniumWebDriver());
-						
-						} catch (Exception e) {						
-							e.printStackTrace();
-						}
-						
-						((SeleniumComponent) sc).setAttribute(attributeName, value);
-						((SeleniumComponent) sc).setElement(el);			
-						components.add(sc);
+				} catch (Exception e) {						
+					e.printStackTrace();
 				}
+				
+				((SeleniumComponent) sc).setAttribute(attributeName, value);
+				((SeleniumComponent) sc).setElement(el);			
+				components.add(sc);
 			}
 		}
 		return components;
@@ -241,7 +527,7 @@ public abstract  class SeleniumComponent implements Component {
 		this.locator = new Locator(Locator.LocatorType.ID, value);
 		if (this.isDisplayed) {
 			this.setId(value);
-			this.setElement(selenium.findElement(By.id(value)));
+			load();
 		}
 	}
 	
@@ -277,7 +563,7 @@ public abstract  class SeleniumComponent implements Component {
 		this.locator = new Locator(Locator.LocatorType.NAME, value);
 		if (this.isDisplayed) {
 			this.setName(value);
-			this.setElement(selenium.findElement(By.name(value)));
+			load();
 		}
 	}
 
@@ -295,13 +581,21 @@ public abstract  class SeleniumComponent implements Component {
 	public void loadByXPath(final String value){		
 		this.locator = new Locator(Locator.LocatorType.XPATH , value);
 		if(this.isDisplayed){
-			WebDriverWait wait = new WebDriverWait(getSeleniumWebDriver(), 	TIMEOUT);			
-			wait.until(ExpectedConditions.visibilityOf(getSeleniumWebDriver().findElement(By.xpath(value))));
 			setXPath(value);
-			setElement(getSeleniumWebDriver().findElement(By.xpath(value)));
+			load();
 		}
 	
 	}
+	
+	/**
+	 * Searches the element of the locator now, or only keeps it pending in lazy mode.
+	 */
+	private void load() {
+		this.pending = true;
+		if (!this.lazy) {
+			bind();
+		}
+	}
 
 
 	/**
@@ -322,8 +616,7 @@ public abstract  class SeleniumComponent implements Component {
 	public void validateElementTag() {
 
 		String errorMsg = String.format(
-				ErrorMessages.ERROR_INVALID_TAG_TO_CLASS, getElement()
-						.getTagName());
+				ErrorMessages.ERROR_INVALID_TAG_TO_CLASS, getTagName());
 
 		if (!isValidElementTag()) {
 			throw new IllegalArgumentException(errorMsg);
@@ -334,7 +627,7 @@ public abstract  class SeleniumComponent implements Component {
 
 		for (Entry<String, String> attribute : this.attributes.entrySet()) {		
 			  if(!attribute.getKey().equals("xpath"))
-				  if (!getElement().getAttribute(attribute.getKey())
+				  if (!getAttribute(attribute.getKey())
 							.equalsIgnoreCase(attribute.getValue())) {
 						throw new IllegalArgumentException(
 								ErrorMessages.ERROR_ELEMENTS_ATTRIBUTES_NOT_MATCH);
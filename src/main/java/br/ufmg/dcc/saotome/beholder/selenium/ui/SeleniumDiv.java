@@ -36,7 +36,7 @@ public class SeleniumDiv extends SeleniumComponent implements Div {
 
 	@Override
 	public boolean isValidElementTag() {
-		return "div".equalsIgnoreCase(getElement().getTagName());
+		return "div".equalsIgnoreCase(getTagName());
 	}
 
 	@Override
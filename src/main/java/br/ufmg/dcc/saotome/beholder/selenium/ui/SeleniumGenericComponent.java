@@ -43,10 +43,10 @@ public class SeleniumGenericComponent extends SeleniumComponent implements
 	
 	@Override
 	public boolean isValidElementTag() {
-		boolean isInput = "input".equalsIgnoreCase(getElement().getTagName()) && !getElement().getAttribute("type").equalsIgnoreCase("hidden"),
-				 isSelect = "select".equalsIgnoreCase(getElement().getTagName()),
-				 isLink = "a".equalsIgnoreCase(getElement().getTagName()),
-				 isButton = "button".equalsIgnoreCase(getElement().getTagName());
+		boolean isInput = "input".equalsIgnoreCase(getTagName()) && !getAttribute("type").equalsIgnoreCase("hidden"),
+				 isSelect = "select".equalsIgnoreCase(getTagName()),
+				 isLink = "a".equalsIgnoreCase(getTagName()),
+				 isButton = "button".equalsIgnoreCase(getTagName());
 		
 		return !isInput && !isSelect && !isLink && !isButton;
 	}
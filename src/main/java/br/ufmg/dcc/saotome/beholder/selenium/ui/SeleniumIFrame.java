@@ -62,8 +62,8 @@ public class SeleniumIFrame extends SeleniumComponent implements IFrame {
 	public boolean isValidElementTag() {
 		
 		if(this.isDisplayed()){
-			Boolean isIFrame = "iframe".equalsIgnoreCase(getElement().getTagName());
-			Boolean isFrame = "frame".equalsIgnoreCase(getElement().getTagName());
+			Boolean isIFrame = "iframe".equalsIgnoreCase(getTagName());
+			Boolean isFrame = "frame".equalsIgnoreCase(getTagName());
 			return isIFrame || isFrame;	
 		}
 		return true;
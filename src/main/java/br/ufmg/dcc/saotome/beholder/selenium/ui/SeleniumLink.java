@@ -59,7 +59,7 @@ public class SeleniumLink extends SeleniumComponent implements Link {
 
 	@Override
 	public boolean isValidElementTag() {
-		return "a".equalsIgnoreCase(getElement().getTagName());
+		return "a".equalsIgnoreCase(getTagName());
 	}
 
 	@Override
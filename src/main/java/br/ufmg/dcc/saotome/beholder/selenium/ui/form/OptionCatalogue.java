@@ -0,0 +1,161 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.ui.form;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.WebElement;
+
+import br.ufmg.dcc.saotome.beholder.ui.form.Select.Option;
+
+/**
+ * Index of the options of a select, read once and searched without commands to the browser.
+ * Texts and values are indexed ignoring the case, as {@link String#equalsIgnoreCase(String)}
+ * compares them, and indexes are matched exactly; the search script of the select follows the
+ * same rule. Each key points to the first option that has it, the same option a sequential
+ * search would find. The catalogue keeps the navigation epoch in which it was read and the
+ * select element it was read from, so the select can discard it when the document or the
+ * element is replaced.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ * @see SeleniumSelectField
+ */
+final class OptionCatalogue {
+
+	/** Navigation epoch in which the options were read */
+	private final long epoch;
+	/** Select element from which the options were read */
+	private final WebElement select;
+	/** Options in the order of the document */
+	private final List<Option> options;
+	/** Position of the first option of each text, by the text without case */
+	private final Map<String, Integer> texts;
+	/** Position of the first option of each value, by the value without case */
+	private final Map<String, Integer> values;
+	
+	/**
+	 * @param epoch navigation epoch in which the options were read
+	 * @param select select element from which the options were read
+	 * @param options options in the order of the document
+	 */
+	OptionCatalogue(final long epoch, final WebElement select, final List<Option> options) {
+		
+		this.epoch = epoch;
+		this.select = select;
+		this.options = options;
+		this.texts = new HashMap<String, Integer>(options.size() * 4 / 3 + 1);
+		this.values = new HashMap<String, Integer>(options.size() * 4 / 3 + 1);
+		
+		for (int position = 0; position < options.size(); position++) {
+			Option option = options.get(position);
+			index(this.texts, option.getText(), position);
+			index(this.values, option.getValue(), position);
+		}
+	}
+	
+	private static void index(final Map<String, Integer> map, final String key, final int position) {
+		if (key != null) {
+			String folded = fold(key);
+			if (!map.containsKey(folded)) {
+				map.put(folded, position);
+			}
+		}
+	}
+	
+	/**
+	 * Converts a text to a key shared by all texts equal to it ignoring the case. Each char
+	 * is converted as {@link String#CASE_INSENSITIVE_ORDER} compares it.
+	 */
+	private static String fold(final String text) {
+		char[] chars = text.toCharArray();
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+		}
+		return new String(chars);
+	}
+	
+	/**
+	 * @return navigation epoch in which the options were read
+	 */
+	long getEpoch() {
+		return this.epoch;
+	}
+	
+	/**
+	 * @return select element from which the options were read
+	 */
+	WebElement getSelect() {
+		return this.select;
+	}
+	
+	/**
+	 * @return number of options
+	 */
+	int size() {
+		return this.options.size();
+	}
+	
+	/**
+	 * @param position position of the option (0 is the first option)
+	 * @return the option
+	 */
+	Option get(final int position) {
+		return this.options.get(position);
+	}
+	
+	/**
+	 * @param text text of the option, compared ignoring the case
+	 * @return position of the first option with the text, or -1 if there isn't one
+	 */
+	int findByText(final String text) {
+		return find(this.texts, text);
+	}
+	
+	/**
+	 * @param value value of the option, compared ignoring the case
+	 * @return position of the first option with the value, or -1 if there isn't one
+	 */
+	int findByValue(final String value) {
+		return find(this.values, value);
+	}
+	
+	/**
+	 * @param index index of the option
+	 * @return position of the option with the index, or -1 if there isn't one
+	 */
+	int findByIndex(final int index) {
+		if (index >= 0 && index < this.options.size() && Integer.valueOf(index).equals(this.options.get(index).getIndex())) {
+			return index;
+		}
+		for (int position = 0; position < this.options.size(); position++) {
+			if (Integer.valueOf(index).equals(this.options.get(position).getIndex())) {
+				return position;
+			}
+		}
+		return -1;
+	}
+	
+	private static int find(final Map<String, Integer> map, final String key) {
+		Integer position = map.get(fold(key));
+		return (position == null) ? -1 : position;
+	}
+}
@@ -75,9 +75,9 @@ public class SeleniumButton extends SeleniumComponent implements Button {
     @Override
     public final boolean isValidElementTag() {
 
-        boolean isButton = "button".equalsIgnoreCase(getElement().getTagName()),
-            isInput = "input".equalsIgnoreCase(getElement().getTagName()),
-            isImg = "img".equalsIgnoreCase(getElement().getTagName());
+        boolean isButton = "button".equalsIgnoreCase(getTagName()),
+            isInput = "input".equalsIgnoreCase(getTagName()),
+            isImg = "img".equalsIgnoreCase(getTagName());
         return isButton || isInput || isImg;
     }
     
@@ -85,7 +85,7 @@ public class SeleniumButton extends SeleniumComponent implements Button {
     public final void validateElementTag() {
     	super.validateElementTag();
     	
-    	boolean isInput = "input".equalsIgnoreCase(getElement().getTagName());
+    	boolean isInput = "input".equalsIgnoreCase(getTagName());
     	
     	if (isInput && getType() == null){
     		throw new IllegalArgumentException(ERROR_INVALID_INPUT_TYPE);
@@ -60,7 +60,7 @@ public class SeleniumCheckBoxField extends SeleniumComponent implements
 
     @Override
     public final boolean isValidElementTag() {
-        return "input".equalsIgnoreCase(getElement().getTagName());
+        return "input".equalsIgnoreCase(getTagName());
     }
     
     @Override
@@ -43,7 +43,7 @@ public class SeleniumRadioButton extends SeleniumComponent implements RadioButto
 
 	@Override
 	public boolean isValidElementTag() {
-		Boolean isInput = "input".equalsIgnoreCase(getElement().getTagName());
+		Boolean isInput = "input".equalsIgnoreCase(getTagName());
 		Boolean isRadio = "radio".equalsIgnoreCase(getAttribute("type"));
 		return isInput && isRadio;
 	}
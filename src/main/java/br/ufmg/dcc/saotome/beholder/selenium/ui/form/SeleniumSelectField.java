@@ -20,15 +20,20 @@
 package br.ufmg.dcc.saotome.beholder.selenium.ui.form;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
-import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedCondition;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
+import br.ufmg.dcc.saotome.beholder.selenium.NavigationTracker;
+import br.ufmg.dcc.saotome.beholder.selenium.SeleniumWait;
+import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
 import br.ufmg.dcc.saotome.beholder.selenium.ui.SeleniumComponent;
 import br.ufmg.dcc.saotome.beholder.ui.form.Select;
 
@@ -48,8 +53,83 @@ public class SeleniumSelectField extends SeleniumComponent implements Select {
 		super(driver);
 	}
 
-	/** List of Options loaded by select */
-	private List<Option> options = new ArrayList<Option>();
+	/** Functions shared by the option scripts. same(a, b) compares two texts ignoring the case
+	 * as String.equalsIgnoreCase does. */
+	private static final String FUNCTIONS =
+			"function same(a, b) {"
+			+ "  if (a.length !== b.length) { return false; }"
+			+ "  for (var i = 0; i < a.length; i++) {"
+			+ "    var x = a.charAt(i), y = b.charAt(i);"
+			+ "    if (x !== y && x.toUpperCase() !== y.toUpperCase() && x.toLowerCase() !== y.toLowerCase()) { return false; }"
+			+ "  }"
+			+ "  return true;"
+			+ "}";
+	
+	/** Reads all options of the select. Returns, for each option, its element, index, value
+	 * and text. */
+	private static final String OPTIONS_SCRIPT =
+			"var options = arguments[0].getElementsByTagName('option'), result = [];"
+			+ "for (var i = 0; i < options.length; i++) {"
+			+ "  result.push([options[i], options[i].index, options[i].value, options[i].text]);"
+			+ "}"
+			+ "return result;";
+	
+	/** Searches the first option with an index, value or text. The arguments are the select,
+	 * the name of the Type and the value searched. Texts and values match ignoring the case, as
+	 * {@link OptionCatalogue} matches them, and indexes match exactly. Returns the option
+	 * element or null. */
+	private static final String FIND_SCRIPT = FUNCTIONS
+			+ "var options = arguments[0].getElementsByTagName('option'), type = arguments[1], value = String(arguments[2]);"
+			+ "for (var i = 0; i < options.length; i++) {"
+			+ "  var option = options[i];"
+			+ "  if ((type === 'INDEX' && String(option.index) === value)"
+			+ "      || (type === 'VALUE' && same(option.value, value))"
+			+ "      || (type === 'TEXT' && same(option.text, value))) { return option; }"
+			+ "}"
+			+ "return null;";
+	
+	/** Checks that an option of the index is still the option read. The arguments are the
+	 * select, the select of the index, the option and the value and text read. Returns true if
+	 * the select is the same element and the option is still inside it with the same value and
+	 * text. */
+	private static final String CHECK_SCRIPT =
+			"var option = arguments[2];"
+			+ "return arguments[0] === arguments[1] && arguments[0].contains(option)"
+			+ "  && option.value === arguments[3] && option.text === arguments[4];";
+	
+	/** Selects several options of a multiple select at once. The arguments are the select, the
+	 * select of the index, the positions of the options, the number of options expected and the
+	 * values and texts read for each position. Returns false if the select is not multiple, null
+	 * if the select was replaced, the number of options changed or an option at a position
+	 * hasn't the value and text read, and the indexes, in the positions argument, of the
+	 * disabled options if there are some, selecting nothing in these cases. Only the input and
+	 * change events are fired, as the browser does when the user changes the selection; the
+	 * mouse and click handlers of the options are not called. */
+	private static final String SELECT_ALL_SCRIPT =
+			"var select = arguments[0], options = select.getElementsByTagName('option'), positions = arguments[2], disabled = [];"
+			+ "if (!select.multiple) { return false; }"
+			+ "if (select !== arguments[1] || options.length !== arguments[3]) { return null; }"
+			+ "for (var i = 0; i < positions.length; i++) {"
+			+ "  var option = options[positions[i]];"
+			+ "  if (option.value !== arguments[4][i] || option.text !== arguments[5][i]) { return null; }"
+			+ "}"
+			+ "for (var i = 0; i < positions.length; i++) {"
+			+ "  var option = options[positions[i]], group = option.parentNode;"
+			+ "  if (option.disabled || (group && group.tagName === 'OPTGROUP' && group.disabled)) { disabled.push(i); }"
+			+ "}"
+			+ "if (disabled.length) { return disabled; }"
+			+ "for (var i = 0; i < positions.length; i++) { options[positions[i]].selected = true; }"
+			+ "var names = ['input', 'change'];"
+			+ "for (var i = 0; i < names.length; i++) {"
+			+ "  var event = document.createEvent('HTMLEvents');"
+			+ "  event.initEvent(names[i], true, false);"
+			+ "  select.dispatchEvent(event);"
+			+ "}"
+			+ "return true;";
+	
+	/** Index of the options read from the current element in the current navigation epoch,
+	 * or null */
+	private OptionCatalogue catalogue;
 	
 	/** This class extends Option, inserting the concept of WebElement to be
 	 * worked inside of SeleniumSelectField class*/
@@ -62,21 +142,35 @@ public class SeleniumSelectField extends SeleniumComponent implements Select {
 		VALUE, INDEX, TEXT
 	};
 	
+	/**
+	 * {@inheritDoc} The options are read with a single script and each call returns a new
+	 * unmodifiable list, which doesn't change when the select changes.
+	 */
 	@Override
 	public final List<Option> getOptions() {
 
-		SeleniumOption option;
 		reloadElement();
-		List<WebElement> webElements = getElement().findElements(By.tagName("option"));
-		for (WebElement element : webElements) {
-			option = new SeleniumOption();
-			option.setIndex(Integer.valueOf(element.getAttribute("index")));
-			option.setValue(element.getAttribute("value"));
-			option.setText(element.getText());
-			option.webElement = element;
+		return readOptions();
+	}
+	
+	/**
+	 * Reads the options of the element already loaded with a single script.
+	 * @return a new unmodifiable list of options
+	 */
+	@SuppressWarnings("unchecked")
+	private List<Option> readOptions() {
+		
+		List<List<Object>> rows = (List<List<Object>>) execute(OPTIONS_SCRIPT, getElement());
+		List<Option> options = new ArrayList<Option>(rows.size());
+		for (List<Object> row : rows) {
+			SeleniumOption option = new SeleniumOption();
+			option.webElement = (WebElement) row.get(0);
+			option.setIndex(((Number) row.get(1)).intValue());
+			option.setValue((String) row.get(2));
+			option.setText((String) row.get(3));
 			options.add(option);
 		}
-		return this.options;
+		return Collections.unmodifiableList(options);
 	}
 
 	/**
@@ -98,9 +192,74 @@ public class SeleniumSelectField extends SeleniumComponent implements Select {
 		select(Type.INDEX, optionIndex);
 	}
 
+	/**
+	 * Selects several options of a multiple select with a single command, keeping the options
+	 * already selected. The options are searched in the index of options of the select, as
+	 * {@link #select(String)} does, including the "submit::" prefix to search by value. The
+	 * options are selected by a script that fires the input and change events of the select,
+	 * without the mouse and click events of a user selection. The script checks the value and
+	 * text of each option in the index before selecting it, and the options are read again
+	 * once if the select was replaced or its options changed.
+	 * @param optionTexts texts of the options
+	 * @throws NoSuchElementException if an option doesn't exist or is disabled, selecting none
+	 * @throws UnsupportedOperationException if the select is not multiple
+	 */
+	public final void selectAll(final String... optionTexts) {
+		
+		if (optionTexts == null) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"optionTexts"));
+		}
+		
+		reloadElement();
+		for (int attempt = 0; attempt < 2; attempt++) {
+			OptionCatalogue options = getCatalogue(attempt > 0);
+			List<Integer> positions = new ArrayList<Integer>(optionTexts.length);
+			List<String> values = new ArrayList<String>(optionTexts.length);
+			List<String> texts = new ArrayList<String>(optionTexts.length);
+			for (String optionText : optionTexts) {
+				int position = optionText.contains("submit::")
+						? options.findByValue(optionText.split("::")[1])
+						: options.findByText(optionText);
+				if (position < 0) {
+					if (attempt > 0) {
+						throw new NoSuchElementException(String.format(ErrorMessages.ERROR_OPTION_NOT_FOUND, optionText));
+					}
+					break;
+				}
+				positions.add(position);
+				values.add(options.get(position).getValue());
+				texts.add(options.get(position).getText());
+			}
+			if (positions.size() == optionTexts.length) {
+				Object selected;
+				try {
+					selected = execute(SELECT_ALL_SCRIPT, getElement(), options.getSelect(), positions, options.size(), values, texts);
+				} catch (StaleElementReferenceException sere) {
+					// the select of the index was removed from the document
+					selected = null;
+				}
+				if (Boolean.FALSE.equals(selected)) {
+					throw new UnsupportedOperationException(ErrorMessages.ERROR_SELECT_NOT_MULTIPLE);
+				}
+				if (selected instanceof List) {
+					// disabled options can't be selected by the user
+					List<String> disabled = new ArrayList<String>();
+					for (Object index : (List<?>) selected) {
+						disabled.add(optionTexts[((Number) index).intValue()]);
+					}
+					throw new NoSuchElementException(String.format(ErrorMessages.ERROR_OPTION_NOT_FOUND, disabled.toString()));
+				}
+				if (selected != null) {
+					return;
+				}
+			}
+		}
+		throw new NoSuchElementException(String.format(ErrorMessages.ERROR_OPTION_NOT_FOUND, Arrays.toString(optionTexts)));
+	}
+
 	/**
 	 * this private method try to search the value of the select for n seconds
-	 * specified by TIMEOUT static variable. The coerence if the data passed is
+	 * specified by the timeout of the component. The coerence if the data passed is
 	 * or isn't the correct value is responsability of the test developer.
 	 * 
 	 * @param type
@@ -117,87 +276,82 @@ public class SeleniumSelectField extends SeleniumComponent implements Select {
 		this.selectByType(type, value);
 	}
 
+	/**
+	 * Searches the option in the index of options and clicks it. The option found is checked
+	 * in the browser first: the select must be the element the index was read from and the
+	 * option must still be inside it with the value and text read. If the option is not in the
+	 * index or the check fails, the index is discarded and the option is searched inside the
+	 * browser, with a single script for each poll. Texts and values match ignoring the case and
+	 * indexes match exactly.
+	 */
 	private void selectByType(final Type type, final Object value) {
 		
-		final Option option = new SeleniumOption();
+		OptionCatalogue options = getCatalogue(false);
+		int position;
 		switch (type) {
 			case INDEX:
-				option.setIndex((Integer)value);
+				position = options.findByIndex((Integer) value);
 				break;
 			case VALUE:
-				option.setValue((String)value);
+				position = options.findByValue((String) value);
 				break;
-			case TEXT:
-				option.setText((String)value);
+			default:
+				position = options.findByText((String) value);
 				break;
 		}
+		if (position >= 0) {
+			SeleniumOption option = (SeleniumOption) options.get(position);
+			try {
+				if (Boolean.TRUE.equals(execute(CHECK_SCRIPT, getElement(), options.getSelect(), option.webElement,
+						option.getValue(), option.getText()))) {
+					option.webElement.click();
+					return;
+				}
+			} catch (StaleElementReferenceException sere) {
+				// the select or the options were replaced after the index was read
+			}
+		}
+		this.catalogue = null;
 		
-		WebDriverWait wait = new WebDriverWait(getSeleniumWebDriver(), SeleniumComponent.TIMEOUT);
-		ExpectedCondition<Option> resultsAreDisplayed = new ExpectedCondition<Option>() {
-
-			public Option apply(WebDriver driver) {
-				Iterator<Option> iterator = getOptions().iterator();
-				
-				while(iterator.hasNext()){
-					Option opt = iterator.next();
-					if(isSame(option,opt)){
-						((SeleniumOption)opt).webElement.click();
-						return opt;
-					}
+		ExpectedCondition<WebElement> resultsAreDisplayed = new ExpectedCondition<WebElement>() {
+
+			public WebElement apply(WebDriver driver) {
+				WebElement option = (WebElement) execute(FIND_SCRIPT, getElement(), type.name(), value);
+				if (option != null) {
+					option.click();
 				}
-				return null; 
+				return option; 
 			}
 		};
-		wait.until(resultsAreDisplayed);
+		SeleniumWait.until(getSeleniumWebDriver(), getTimeout(), "SeleniumSelectField.select", resultsAreDisplayed);
 	}
 	
-	
-	/** This method makes easy to compare between two option components. There are 2 rules
-	 * implemented:<br/>
-	 * - only class attributes not null in both classes are evaluated;<br/>
-	 * - all evaluable attributes must be equals.
-	 * @return Returns true only if the 2 rules above are true. Otherwise the return is false.
+	/**
+	 * Returns the index of the options, reading the options again if the page navigated since
+	 * the index was read. Drivers that don't count navigations read the options every time.
+	 * The index keeps the element it was read from; as the element is searched again on each
+	 * use, the scripts that use the index compare both elements in the browser and the index
+	 * is discarded when they differ.
+	 * @param reload true to read the options even if the index is current
+	 * @return the index of the options
 	 */
-	private boolean isSame(Option option1, Option option2) {
+	private OptionCatalogue getCatalogue(final boolean reload) {
 		
-		if (option1 == null || option2 == null) {
-			return false;
-		} if (option1.equals(option2)) {
-			return true;
+		WebDriver driver = getSeleniumWebDriver();
+		long epoch = (driver instanceof NavigationTracker) ? ((NavigationTracker) driver).getNavigationEpoch() : -1;
+		if (reload || epoch < 0 || this.catalogue == null || this.catalogue.getEpoch() != epoch) {
+			this.catalogue = new OptionCatalogue(epoch, getElement(), readOptions());
 		}
-		
-		String 	index1 = (option1.getIndex() == null)?null:Integer.toString(option1.getIndex()),
-				index2 = (option2.getIndex() == null)?null:Integer.toString(option2.getIndex());
-		
-		boolean isValidIndex = validField(index1, index2); 
-		boolean isValidValue = validField(option1.getValue(), option2.getValue());
-		boolean isValidText = validField(option1.getText(),option2.getText());
-		
-		return isValidIndex && isValidValue && isValidText;
+		return this.catalogue;
 	}
 	
-	private boolean validField(String valueA, String valueB){
-		
-		boolean isANull, isBNull;
-		
-		isANull = (valueA == null);
-		isBNull = (valueB == null);
-		
-		if(isANull && isBNull) {
-			return false;
-		}
-		
-		if (!isANull && !isBNull) {
-			return valueA.equalsIgnoreCase(valueB);	
-		}
-
-		return true;
+	private Object execute(final String script, final Object... args) {
+		return ((JavascriptExecutor) getSeleniumWebDriver()).executeScript(script, args);
 	}
-
-
+	
 	@Override
 	public final boolean isValidElementTag() {
-		return "select".equalsIgnoreCase(getElement().getTagName());
+		return "select".equalsIgnoreCase(getTagName());
 	}
 
 	@Override
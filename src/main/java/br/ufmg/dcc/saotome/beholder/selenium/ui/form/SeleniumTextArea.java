@@ -38,7 +38,7 @@ implements TextArea{
 
 	@Override
 	public boolean isValidElementTag() {
-        return "textarea".equalsIgnoreCase(getElement().getTagName());
+        return "textarea".equalsIgnoreCase(getTagName());
 	}
 
 	@Override
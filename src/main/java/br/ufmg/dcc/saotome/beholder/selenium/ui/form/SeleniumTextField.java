@@ -59,7 +59,7 @@ implements TextField {
 
     @Override
     public final boolean isValidElementTag() {
-        return "input".equalsIgnoreCase(getElement().getTagName());
+        return "input".equalsIgnoreCase(getTagName());
     }
     
     @Override
@@ -19,7 +19,10 @@
  */
 package br.ufmg.dcc.saotome.beholder.selenium.ui.table;
 
+import java.util.Collections;
+
 import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 
 import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
@@ -33,39 +36,86 @@ import br.ufmg.dcc.saotome.beholder.ui.table.Cell;
  */
 public class SeleniumCell implements Cell{
 	
+	/** Cell element, or null while it was not searched */
 	private WebElement cell;
 	private Coordinate coordinate;
+	/** Driver used to search the element and read the text of a cell with a single script */
+	private WebDriver driver;
+	/** Table of the cell, used to find the cell element on demand. */
+	private WebElement table;
+	private CellType type;
+	/** Text read by a snapshot, or null if the text is read from the cell element. */
+	private String text;
 	
 	public enum CellType {
-		HEAD,
-		BODY,
-		FOOT
+		HEAD(".//thead/tr", "th"),
+		BODY(".//tbody/tr", "td"),
+		FOOT(".//tfoot/tr", "td");
+		
+		/** XPath of the lines, relative to the table */
+		private final String linesLocator;
+		/** Tag of the cells of a line */
+		private final String cellTag;
+		
+		private CellType(final String linesLocator, final String cellTag) {
+			this.linesLocator = linesLocator;
+			this.cellTag = cellTag;
+		}
+		
+		/**
+		 * @return XPath of the lines of this type, relative to the table
+		 */
+		String getLinesLocator() {
+			return this.linesLocator;
+		}
+		
+		/**
+		 * @return XPath of the cells of a line, relative to the line
+		 */
+		String getCellsLocator() {
+			return ".//" + this.cellTag;
+		}
+		
+		/**
+		 * Returns the XPath of a cell, relative to the table. The lines and cells are counted
+		 * in the same order used by {@link #getLinesLocator()} and {@link #getCellsLocator()}.
+		 * @param coordinate coordinates of cell in the table
+		 * @return XPath of the cell
+		 */
+		String getCellLocator(final Coordinate coordinate) {
+			return String.format("(%s)[%d]/descendant::%s[%d]", this.linesLocator,
+					coordinate.getLineIndex(), this.cellTag, coordinate.getColumnIndex());
+		}
 	}
 	
 	
 	/** 
-	 * Recover a cell from a given table by its coordinates.
+	 * Recover a cell from a given table by its coordinates. The cell element is only searched
+	 * when the cell is read or clicked for the first time, so creating the cell costs no
+	 * command to the browser.
 	 * @param table Table element 
 	 * @param coordinate coordinates of cell in the table
 	 */
 	public SeleniumCell(final WebElement table,final Coordinate coordinate, final CellType type) {
+		this(null, table, coordinate, type);
+	}
+	
+	/** 
+	 * Constructor of a cell whose element is searched on demand. With a driver, the first
+	 * reading of the text searches the element and reads its text with a single script.
+	 * @param driver driver that runs the scripts, or null to search the element by the table
+	 * @param table Table element 
+	 * @param coordinate coordinates of cell in the table
+	 * @param type part of the table that contains the cell
+	 */
+	SeleniumCell(final WebDriver driver, final WebElement table, final Coordinate coordinate, final CellType type) {
 		
 		validateCoordinate(coordinate);
 		
-		String xpath="";
-		
-		switch (type){
-			case HEAD: 	xpath =  ".//thead/tr[%d]/th[%d]";
-						break;
-			case BODY: 	xpath =  ".//tbody/tr[%d]/td[%d]";
-						break;
-			case FOOT:	xpath =  ".//tfoot/tr[%d]/td[%d]";
-						break;
-		}
-		
-		String locator = String.format(xpath,coordinate.getLineIndex(),coordinate.getColumnIndex());
-		
-		this.cell = table.findElement(By.xpath(locator));		
+		this.driver = driver;
+		this.table = table;
+		this.coordinate = coordinate;
+		this.type = type;
 	}
 	
 	/** 
@@ -79,6 +129,24 @@ public class SeleniumCell implements Cell{
 		this(table,new Coordinate(lineIndex, columnIndex),type);
 	}
 	
+	/** 
+	 * Constructor of a cell read by a snapshot. The text is the one read by the snapshot and
+	 * the cell element is only searched when the cell is clicked.
+	 * @param table Table element 
+	 * @param coordinate coordinates of cell in the table
+	 * @param type part of the table that contains the cell
+	 * @param text text of the cell
+	 */
+	SeleniumCell(final WebElement table, final Coordinate coordinate, final CellType type, final String text) {
+		
+		validateCoordinate(coordinate);
+		
+		this.table = table;
+		this.coordinate = coordinate;
+		this.type = type;
+		this.text = text;
+	}
+	
 	/** Constructor of a cell. Cells to exist must have a coodinate to find it.
 	 * @param cell Selenium WebElement object 
 	 * 		
@@ -114,11 +182,56 @@ public class SeleniumCell implements Cell{
 
 	@Override
 	public String getText() {
-		return this.cell.getText();
+		if (this.text != null) {
+			return this.text;
+		}
+		if (this.cell == null && this.driver != null) {
+			return new TableReader(this.driver, this.table).readTexts(Collections.singletonList(this)).get(0);
+		}
+		return getCellElement().getText();
 	}
 
 	@Override
 	public void click() {
-		this.cell.click();
+		getCellElement().click();
+	}
+	
+	/**
+	 * @return table of the cell, or null if the cell was created by its element
+	 */
+	WebElement getTable() {
+		return this.table;
+	}
+	
+	/**
+	 * @return part of the table that contains the cell
+	 */
+	CellType getType() {
+		return this.type;
+	}
+	
+	/**
+	 * @return true if the text is known or the cell element was already searched
+	 */
+	boolean isResolved() {
+		return this.text != null || this.cell != null;
+	}
+	
+	/**
+	 * Keeps the cell element found by a script that searched several cells at once.
+	 * @param cell cell element
+	 */
+	void setCellElement(final WebElement cell) {
+		this.cell = cell;
+	}
+	
+	/**
+	 * @return the cell element, searching it in the table the first time
+	 */
+	private WebElement getCellElement() {
+		if (this.cell == null) {
+			this.cell = this.table.findElement(By.xpath(this.type.getCellLocator(this.coordinate)));
+		}
+		return this.cell;
 	}
 }
@@ -20,16 +20,15 @@
 package br.ufmg.dcc.saotome.beholder.selenium.ui.table;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-
-import org.openqa.selenium.By;
-import org.openqa.selenium.WebElement;
 
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 
+import br.ufmg.dcc.saotome.beholder.selenium.SeleniumController;
+import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
 import br.ufmg.dcc.saotome.beholder.selenium.ui.SeleniumComponent;
 import br.ufmg.dcc.saotome.beholder.selenium.ui.table.SeleniumCell.CellType;
 import br.ufmg.dcc.saotome.beholder.ui.table.Cell;
@@ -39,37 +38,68 @@ import br.ufmg.dcc.saotome.beholder.ui.table.Table;
 /** The class SeleniumTable implements the Table interface. A table component is a set of cells 
  * organized by lines and columns. The objective of this class is making easy the user to recover
  * the information of this cells. 
+ * <p>
+ * The texts of cells read together, by lines, columns, snapshots or queries, are read in the
+ * browser from innerText (or textContent, when the browser hasn't innerText), with the
+ * non-breaking spaces replaced by spaces and the spaces of both ends removed. They are the
+ * texts of WebElement.getText for most cells, but the texts of hidden cells are read too and
+ * the spaces inside the text are kept as the browser renders them.
  * @author icaroclever
  */
 public class SeleniumTable extends SeleniumComponent implements Table{
 
+	/** Number of lines read by each script when the lines are iterated */
+	public static final int DEFAULT_CHUNK_SIZE = 200;
+
 	public SeleniumTable(WebDriver driver) {
 		super(driver);
 	}
 
 	@Override
 	public Cell getHeadCell(Integer line, Integer column) {
-		return new SeleniumCell(this.getElement(), line, column,CellType.HEAD);
+		return getCell(new Coordinate(line, column), CellType.HEAD);
 	}
 
 	@Override
 	public Cell getHeadCell(Coordinate coordinate) {
-		return new SeleniumCell(this.getElement(), coordinate,CellType.HEAD);
+		return getCell(coordinate, CellType.HEAD);
 	}
 
 	@Override
 	public Cell getCell(Integer line, Integer column) {
-		return new SeleniumCell(this.getElement(), line, column,CellType.BODY);
+		return getCell(new Coordinate(line, column), CellType.BODY);
 	}
 
 	@Override
 	public Cell getCell(Coordinate coordinate) {
-		return new SeleniumCell(this.getElement(), coordinate,CellType.BODY);
+		return getCell(coordinate, CellType.BODY);
+	}
+
+	/**
+	 * Creates a cell of the table without commands to the browser. The cell is searched when
+	 * it is read or clicked for the first time.
+	 */
+	private Cell getCell(final Coordinate coordinate, final CellType type) {
+		return new SeleniumCell(getSeleniumWebDriver(), getElement(), coordinate, type);
+	}
+	
+	/**
+	 * Reads the texts of some cells together. The cells of this table that were not read yet
+	 * are searched and read with a single command, instead of one command per cell.
+	 * @param cells cells to read
+	 * @return texts of the cells, in the same order
+	 */
+	public List<String> getTexts(final List<? extends Cell> cells) {
+		
+		if (cells == null) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"cells"));
+		}
+		return getReader().readTexts(cells);
 	}
 
 	@Override
 	public boolean isValidElementTag() {
-		return "table".equalsIgnoreCase(getElement().getTagName());
+		return "table".equalsIgnoreCase(getTagName());
 	}
 
 	@Override
@@ -78,100 +108,56 @@ public class SeleniumTable extends SeleniumComponent implements Table{
 	}
 	
 	
+	/**
+	 * Reads the texts of all cells of the table with a single command. The snapshot doesn't
+	 * change when the table changes in the browser.
+	 * @param attributes names of the attributes also read from each cell
+	 * @return the snapshot of the table
+	 */
+	public TableSnapshot getSnapshot(final String... attributes) {
+		return new TableSnapshot(getSeleniumWebDriver(), getElement(), attributes);
+	}
+	
+	/**
+	 * Reads the table and creates a hash index of the body lines by the texts of some columns.
+	 * The index reads the table again when it changes in the browser.
+	 * @param columns columns of the key (1 is the first column)
+	 * @return the index
+	 * @see TableSnapshot#createIndex(int...)
+	 */
+	public TableIndex createIndex(final int... columns) {
+		return getSnapshot().createIndex(columns);
+	}
+	
 	/**
 	 * Generic method to take line cells of a tbody, thead or tfoot structure and returns as a List<List<Cell>>.
+	 * The texts of the cells are read by a snapshot of the table. The lists are copied from the
+	 * views of the snapshot, so the same cell is returned each time it's accessed.
 	 * @param type
 	 * @return List<List<Cell>>
 	 */
 	private List<List<Cell>> getAllCellsByLine(CellType type) {
-	
-		String locatorLines="", locatorColumn="";
-		
-		switch(type){
-			case HEAD: 	locatorLines = ".//thead/tr";
-						locatorColumn = ".//th";
-						break;
-			case BODY: 	locatorLines = ".//tbody/tr";
-						locatorColumn = ".//td";
-						break;
-			case FOOT: 	locatorLines = ".//tfoot/tr";
-						locatorColumn = ".//td";
-						break;
-		}
-		
-		List<WebElement> lines = this.getElement().findElements(By.xpath(locatorLines)); // Recover all lines from the table
-		
-		List<List<Cell>> cellLines = new ArrayList<List<Cell>>(); // List of lines of the table
-		
-		Integer lineIndex = 1;
-		
-		for (WebElement line : lines) { // iterate the lines taken from table
-			
-			List<Cell> cellColumns = new ArrayList<Cell>();
-			List<WebElement> columns = line.findElements(By.xpath(locatorColumn)); // Recover all columns from the lines
-			Integer columnIndex = 1;
-			
-			for (WebElement column : columns) { // iterate the columns taken from the line
-				Cell cell = new SeleniumCell(column);
-				cell.setCoordinates(lineIndex, columnIndex);
-				cellColumns.add(cell);
-				columnIndex++;
-			} // end of columns iteration
-			
-			cellLines.add(cellColumns);
-			lineIndex++;
-		}// end of lines iteration
-		
-		return cellLines;
+		return copy(getSnapshot().getCellsByLine(type));
 	}
 
+	/**
+	 * Generic method to take column cells of a tbody, thead or tfoot structure and returns as a List<List<Cell>>.
+	 * The texts of the cells are read by a snapshot of the table, which keeps them by columns.
+	 * The lists are copied from the views of the snapshot, so the same cell is returned each
+	 * time it's accessed.
+	 * @param type
+	 * @return List<List<Cell>>
+	 */
 	private List<List<Cell>> getAllCellsByColumn(CellType type) {
-		
-		final Integer splitFactor = 100000; 
-		
-		List<List<Cell>> orderByLines = getAllCellsByLine(type);
-
-		Map<Integer, Cell> plainList = new HashMap<Integer, Cell>();
-		List<Integer> keys = new ArrayList<Integer>(); 
-		
-		Integer lineIndex = 1;
-		Integer columnIndex;
-		for (List<Cell> line : orderByLines) { // iterates on the lines
-			columnIndex = 1;
-			for (Cell cell : line) { // iterates on the columns
-				Integer coordinates = (columnIndex * splitFactor) + lineIndex;
-				plainList.put(coordinates, cell);
-				keys.add(coordinates);
-				columnIndex++;
-			}// end of column iteration
-			lineIndex++;
-		}// end of line iteration
-		
-		Collections.sort(keys);// sort the keys organizing the collection by column.
-		
-		Integer currentColumn = 1; // variable to hold the current column index 
-		
-		List<List<Cell>> lines = new ArrayList<List<Cell>>();
-		List<Cell> columns = new ArrayList<Cell>();
-		
-		
-		for (Integer coordinate : keys) { // generate list loop
-			lineIndex = coordinate % splitFactor;			
-			columnIndex = coordinate / splitFactor;
-			
-			if (!currentColumn.equals(columnIndex)) {
-				currentColumn=columnIndex;
-				lines.add(columns);
-				columns = new ArrayList<Cell>();
-			}
-			
-			Cell cell = plainList.get(coordinate);
-			cell.setCoordinates(lineIndex, columnIndex);
-			columns.add(cell);
-		} // end of generate list loop
-		lines.add(columns); // insert the last one column
-		
-		return lines;
+		return copy(getSnapshot().getCellsByColumn(type));
+	}
+	
+	private static List<List<Cell>> copy(final List<List<Cell>> view) {
+		List<List<Cell>> cells = new ArrayList<List<Cell>>(view.size());
+		for (List<Cell> part : view) {
+			cells.add(new ArrayList<Cell>(part));
+		}
+		return cells;
 	}
 	
 	@Override
@@ -206,32 +192,182 @@ public class SeleniumTable extends SeleniumComponent implements Table{
 	
 	@Override
 	public List<Cell> getHeadLineCells(Integer index) {
-		return getAllHeadCellsByLine().get(index-1);
+		return getLine(CellType.HEAD, index);
 	}
 
 	@Override
 	public List<Cell> getHeadColumnCells(Integer index) {
-		return getAllHeadCellsByColumn().get(index-1);
+		return getReader().readColumn(CellType.HEAD, index);
 	}
 
 	@Override
 	public List<Cell> getFootLineCells(Integer index) {
-		return getAllFootCellsByLine().get(index-1);
+		return getLine(CellType.FOOT, index);
 	}
 
 	@Override
 	public List<Cell> getFootColumnCells(Integer index) {
-		return getAllFootCellsByColumn().get(index-1);
+		return getReader().readColumn(CellType.FOOT, index);
 	}
 	
 	@Override
 	public List<Cell> getLineCells(Integer index) {		
-		return getAllCellsByLine().get(index-1);
+		return getLine(CellType.BODY, index);
 	}
 
 	@Override
 	public List<Cell> getColumnCells(Integer index) {
-		return getAllCellsByColumn().get(index-1);
+		return getReader().readColumn(CellType.BODY, index);
+	}
+	
+	/**
+	 * Returns the cells of the head lines between two indexes with a single command.
+	 * @param first first line (1 is the first line)
+	 * @param last last line, included
+	 * @return cells of the lines that exist between the indexes, organized by lines
+	 */
+	public List<List<Cell>> getHeadLineCells(Integer first, Integer last) {
+		return getReader().readLines(CellType.HEAD, first, last);
+	}
+	
+	/**
+	 * Returns the cells of the foot lines between two indexes with a single command.
+	 * @param first first line (1 is the first line)
+	 * @param last last line, included
+	 * @return cells of the lines that exist between the indexes, organized by lines
+	 */
+	public List<List<Cell>> getFootLineCells(Integer first, Integer last) {
+		return getReader().readLines(CellType.FOOT, first, last);
+	}
+	
+	/**
+	 * Returns the cells of the body lines between two indexes with a single command.
+	 * @param first first line (1 is the first line)
+	 * @param last last line, included
+	 * @return cells of the lines that exist between the indexes, organized by lines
+	 */
+	public List<List<Cell>> getLineCells(Integer first, Integer last) {
+		return getReader().readLines(CellType.BODY, first, last);
+	}
+	
+	/**
+	 * Iterates the body lines, reading {@link #DEFAULT_CHUNK_SIZE} lines by command.
+	 * @return lines of the body
+	 * @see #getLines(CellType, int)
+	 */
+	public Iterable<List<Cell>> getLines() {
+		return getLines(CellType.BODY, DEFAULT_CHUNK_SIZE);
+	}
+	
+	/**
+	 * Iterates the lines of a part of the table reading them in chunks, with one command for
+	 * each chunk. Only the current chunk is kept in memory, and stopping the iteration stops
+	 * the reading, so large tables can be searched without reading all of them.
+	 * @param type part of the table
+	 * @param chunkSize number of lines read by each command
+	 * @return lines of the part
+	 */
+	public Iterable<List<Cell>> getLines(final CellType type, final int chunkSize) {
+		
+		final TableReader reader = getReader();
+		
+		return new Iterable<List<Cell>>() {
+			@Override
+			public Iterator<List<Cell>> iterator() {
+				return new TableLineIterator(reader, type, chunkSize);
+			}
+		};
+	}
+	
+	/**
+	 * Selects the body lines whose cells satisfy the query. The query is evaluated inside the
+	 * browser and only the lines selected are returned, with a single command.
+	 * @param query conditions of the lines
+	 * @return cells of the lines selected, organized by lines
+	 * @see TableQuery#select(TableSnapshot)
+	 */
+	public List<List<Cell>> select(final TableQuery query) {
+		
+		if (query == null) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"query"));
+		}
+		return query.select(getSeleniumWebDriver(), getElement());
+	}
+	
+	/**
+	 * Waits until the body lines of the table change. The table is observed inside the browser,
+	 * so the lines are not read again and again while waiting. Changes made before this method
+	 * is called are not seen; use {@link #waitForChange(TableSnapshot)} when the change may be
+	 * fast. The script timeout of the driver is set to {@link SeleniumController#SCRIPT_TIMEOUT}
+	 * afterwards, replacing one set by the test on a driver not created by the controller.
+	 * @return differences of the body lines
+	 * @throws TimeoutException if the table doesn't change in the timeout of the component
+	 * @throws StaleElementReferenceException if the table is removed from the page while waiting
+	 */
+	public TableChange waitForChange() {
+		return getWatcher().waitForChange(null, getTimeout());
+	}
+	
+	/**
+	 * Waits until the body lines of the table differ from the ones read by a snapshot. If they
+	 * already differ, the method returns immediately. The script timeout of the driver is set
+	 * to {@link SeleniumController#SCRIPT_TIMEOUT} afterwards, replacing one set by the test on
+	 * a driver not created by the controller.
+	 * @param before snapshot read before the action that changes the table
+	 * @return differences of the body lines
+	 * @throws TimeoutException if the table doesn't change in the timeout of the component
+	 * @throws StaleElementReferenceException if the table is removed from the page while waiting
+	 */
+	public TableChange waitForChange(final TableSnapshot before) {
+		
+		if (before == null) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"before"));
+		}
+		return getWatcher().waitForChange(before, getTimeout());
+	}
+	
+	/**
+	 * Waits until at least one body line is selected by the query. The table is observed inside
+	 * the browser and the query is evaluated only when the table changes. The script timeout of
+	 * the driver is set to {@link SeleniumController#SCRIPT_TIMEOUT} afterwards, replacing one
+	 * set by the test on a driver not created by the controller.
+	 * @param query conditions of the lines
+	 * @return cells of the lines selected, organized by lines
+	 * @throws TimeoutException if no line is selected in the timeout of the component
+	 * @throws StaleElementReferenceException if the table is removed from the page while waiting
+	 */
+	public List<List<Cell>> waitForLines(final TableQuery query) {
+		
+		if (query == null) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"query"));
+		}
+		return getWatcher().waitForLines(query, getTimeout());
+	}
+	
+	private TableWatcher getWatcher() {
+		return new TableWatcher(getSeleniumWebDriver(), getElement());
+	}
+	
+	/**
+	 * Reads a single line of the table.
+	 * @param type part of the table
+	 * @param index line index (1 is the first line)
+	 * @return cells of the line
+	 */
+	private List<Cell> getLine(CellType type, Integer index) {
+		
+		List<List<Cell>> lines = getReader().readLines(type, index, index);
+		if (lines.isEmpty()) {
+			throw new IndexOutOfBoundsException("Line " + index);
+		}
+		return lines.get(0);
+	}
+	
+	/**
+	 * @return reader of parts of the table, which sends a constant number of commands
+	 */
+	private TableReader getReader() {
+		return new TableReader(getSeleniumWebDriver(), getElement());
 	}
 
 	@Override
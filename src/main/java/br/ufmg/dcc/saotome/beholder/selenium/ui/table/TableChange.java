@@ -0,0 +1,152 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.ui.table;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.WebElement;
+
+import br.ufmg.dcc.saotome.beholder.selenium.ui.table.SeleniumCell.CellType;
+import br.ufmg.dcc.saotome.beholder.ui.table.Cell;
+import br.ufmg.dcc.saotome.beholder.ui.table.Cell.Coordinate;
+
+/**
+ * Differences between the body lines of a table before and after a change. Lines with the same
+ * texts in both moments are considered the same line, even if they moved. When the number of
+ * lines that differ is the same before and after, they are paired in order and the cells of the
+ * lines whose texts differ are reported as changed, including the cells that one of the paired
+ * lines has and the other hasn't. Otherwise, they are reported as removed and added lines.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ * @see SeleniumTable#waitForChange()
+ */
+public final class TableChange {
+
+	/** Cell whose text changed, that was added to its line or that was removed from it. */
+	public static final class CellChange {
+		
+		private final Cell cell;
+		private final String previousText;
+		private final String currentText;
+		
+		CellChange(final Cell cell, final String previousText, final String currentText) {
+			this.cell = cell;
+			this.previousText = previousText;
+			this.currentText = currentText;
+		}
+		
+		/**
+		 * @return the cell after the change, with its current text and coordinates. If the cell
+		 * was removed, only its coordinates can be used: its text can't be read anymore.
+		 */
+		public Cell getCell() {
+			return this.cell;
+		}
+		
+		/**
+		 * @return text of the cell before the change, or null if the line hadn't this cell
+		 */
+		public String getPreviousText() {
+			return this.previousText;
+		}
+		
+		/**
+		 * @return text of the cell after the change, or null if the line lost this cell
+		 */
+		public String getCurrentText() {
+			return this.currentText;
+		}
+		
+		/**
+		 * @return true if the line lost this cell in the change
+		 */
+		public boolean isRemoved() {
+			return this.currentText == null;
+		}
+	}
+	
+	private final List<List<Cell>> addedLines;
+	private final List<List<String>> removedLines;
+	private final List<CellChange> changedCells;
+	
+	/**
+	 * @param table table element
+	 * @param diff differences found by the watcher script
+	 */
+	@SuppressWarnings("unchecked")
+	TableChange(final WebElement table, final Map<String, Object> diff) {
+		
+		List<Cell> cells;
+		
+		List<List<Object>> added = (List<List<Object>>) diff.get("added");
+		List<List<Cell>> addedLines = new ArrayList<List<Cell>>(added.size());
+		for (List<Object> line : added) {
+			int index = ((Number) line.get(0)).intValue();
+			List<String> texts = (List<String>) line.get(1);
+			cells = new ArrayList<Cell>(texts.size());
+			for (int column = 1; column <= texts.size(); column++) {
+				cells.add(new SeleniumCell(table, new Coordinate(index, column), CellType.BODY, texts.get(column - 1)));
+			}
+			addedLines.add(Collections.unmodifiableList(cells));
+		}
+		
+		List<List<Object>> removed = (List<List<Object>>) diff.get("removed");
+		List<List<String>> removedLines = new ArrayList<List<String>>(removed.size());
+		for (List<Object> line : removed) {
+			removedLines.add(Collections.unmodifiableList((List<String>) line.get(1)));
+		}
+		
+		List<List<Object>> changed = (List<List<Object>>) diff.get("changed");
+		List<CellChange> changedCells = new ArrayList<CellChange>(changed.size());
+		for (List<Object> change : changed) {
+			Coordinate coordinate = new Coordinate(((Number) change.get(0)).intValue(), ((Number) change.get(1)).intValue());
+			Cell cell = new SeleniumCell(table, coordinate, CellType.BODY, (String) change.get(3));
+			changedCells.add(new CellChange(cell, (String) change.get(2), (String) change.get(3)));
+		}
+		
+		this.addedLines = Collections.unmodifiableList(addedLines);
+		this.removedLines = Collections.unmodifiableList(removedLines);
+		this.changedCells = Collections.unmodifiableList(changedCells);
+	}
+	
+	/**
+	 * @return cells of the lines added, with their coordinates after the change
+	 */
+	public List<List<Cell>> getAddedLines() {
+		return this.addedLines;
+	}
+	
+	/**
+	 * @return texts of the lines removed, as they were before the change
+	 */
+	public List<List<String>> getRemovedLines() {
+		return this.removedLines;
+	}
+	
+	/**
+	 * @return cells whose texts changed
+	 */
+	public List<CellChange> getChangedCells() {
+		return this.changedCells;
+	}
+}
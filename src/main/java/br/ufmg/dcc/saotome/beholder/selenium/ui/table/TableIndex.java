@@ -0,0 +1,170 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.ui.table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
+import br.ufmg.dcc.saotome.beholder.selenium.ui.table.SeleniumCell.CellType;
+import br.ufmg.dcc.saotome.beholder.ui.table.Cell;
+
+/**
+ * Hash index of the body lines of a table snapshot by the texts of one or more columns. Each
+ * search first verifies, with a single command, if the table changed in the browser. If so, the
+ * table is read again and the index is rebuilt before searching. Lines without all the key
+ * columns aren't indexed.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ * @see TableSnapshot#createIndex(int...)
+ */
+public final class TableIndex {
+
+	/** Separates the texts of the columns in the keys */
+	private static final char SEPARATOR = '\u0000';
+	
+	/** Columns of the key */
+	private final int[] columns;
+	/** Snapshot indexed */
+	private TableSnapshot snapshot;
+	/** Lines (1 is the first line) of each key */
+	private Map<String, int[]> lines;
+	
+	/**
+	 * @param snapshot snapshot indexed
+	 * @param columns columns of the key (1 is the first column)
+	 */
+	TableIndex(final TableSnapshot snapshot, final int... columns) {
+		
+		if (columns.length == 0) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_INVALID_PARAMETER, "columns", "[]"));
+		}
+		for (int column : columns) {
+			if (column < 1) {
+				throw new IndexOutOfBoundsException("Column "+ErrorMessages.ERROR_INDEX_NEGATIVE_ZERO);
+			}
+		}
+		
+		this.columns = columns.clone();
+		build(snapshot);
+	}
+	
+	private void build(final TableSnapshot snapshot) {
+		
+		Map<String, int[]> index = new HashMap<String, int[]>();
+		
+		for (int line = 1; line <= snapshot.getLineCount(CellType.BODY); line++) {
+			
+			int width = snapshot.getColumnCount(CellType.BODY, line);
+			String[] texts = new String[this.columns.length];
+			boolean complete = true;
+			
+			for (int position = 0; position < this.columns.length && complete; position++) {
+				complete = this.columns[position] <= width;
+				if (complete) {
+					texts[position] = snapshot.getText(CellType.BODY, line, this.columns[position]);
+				}
+			}
+			
+			if (complete) {
+				// while the index is built, the first item of each array counts its lines and the
+				// arrays double when full, so keys repeated by many lines are not copied on each line
+				String key = key(texts);
+				int[] keyLines = index.get(key);
+				if (keyLines == null) {
+					keyLines = new int[2];
+					index.put(key, keyLines);
+				} else if (keyLines[0] == keyLines.length - 1) {
+					keyLines = Arrays.copyOf(keyLines, keyLines.length * 2);
+					index.put(key, keyLines);
+				}
+				keyLines[++keyLines[0]] = line;
+			}
+		}
+		
+		for (Map.Entry<String, int[]> entry : index.entrySet()) {
+			int[] keyLines = entry.getValue();
+			entry.setValue(Arrays.copyOfRange(keyLines, 1, keyLines[0] + 1));
+		}
+		
+		this.snapshot = snapshot;
+		this.lines = index;
+	}
+	
+	private String key(final String... texts) {
+		
+		if (texts.length != this.columns.length) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_INVALID_PARAMETER, "key", Arrays.toString(texts)));
+		}
+		
+		StringBuilder key = new StringBuilder();
+		for (String text : texts) {
+			key.append(text).append(SEPARATOR);
+		}
+		return key.toString();
+	}
+	
+	/**
+	 * Reads the table again and rebuilds the index if the table changed in the browser.
+	 * @return the snapshot indexed, after the verification
+	 */
+	public TableSnapshot getSnapshot() {
+		TableSnapshot current = this.snapshot.refresh();
+		if (current != this.snapshot) {
+			build(current);
+		}
+		return this.snapshot;
+	}
+	
+	/**
+	 * Searches the body lines whose key columns have the texts.
+	 * @param key texts of the key columns, in the order of the columns of the index
+	 * @return cells of the lines found, organized by lines. Empty if no line has the key.
+	 */
+	public List<List<Cell>> getLines(final String... key) {
+		
+		TableSnapshot current = getSnapshot();
+		int[] keyLines = this.lines.get(key(key));
+		if (keyLines == null) {
+			return Collections.emptyList();
+		}
+		
+		List<List<Cell>> cellLines = current.getCellsByLine(CellType.BODY);
+		List<List<Cell>> found = new ArrayList<List<Cell>>(keyLines.length);
+		for (int line : keyLines) {
+			found.add(cellLines.get(line - 1));
+		}
+		return found;
+	}
+	
+	/**
+	 * Searches the first body line whose key columns have the texts.
+	 * @param key texts of the key columns, in the order of the columns of the index
+	 * @return cells of the line found, or null if no line has the key
+	 */
+	public List<Cell> getLine(final String... key) {
+		List<List<Cell>> found = getLines(key);
+		return found.isEmpty() ? null : found.get(0);
+	}
+}
@@ -0,0 +1,101 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.ui.table;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
+import br.ufmg.dcc.saotome.beholder.selenium.ui.table.SeleniumCell.CellType;
+import br.ufmg.dcc.saotome.beholder.ui.table.Cell;
+
+/**
+ * Iterates the lines of a table part reading them in chunks, one script for each chunk. Only
+ * the current chunk is kept in memory, and no more chunks are read when the iteration stops.
+ * Lines added or removed while iterating may be skipped or repeated.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ * @see SeleniumTable#getLines(CellType, int)
+ */
+final class TableLineIterator implements Iterator<List<Cell>> {
+
+	private final TableReader reader;
+	private final CellType type;
+	private final int chunkSize;
+	
+	/** Lines of the current chunk */
+	private List<List<Cell>> chunk = Collections.emptyList();
+	/** Position of the next line in the chunk */
+	private int position;
+	/** Index of the first line of the next chunk (1 is the first line) */
+	private int nextLine = 1;
+	/** The last chunk was read? */
+	private boolean finished;
+	
+	/**
+	 * @param reader reader of the table
+	 * @param type part of the table
+	 * @param chunkSize number of lines read by each script
+	 */
+	TableLineIterator(final TableReader reader, final CellType type, final int chunkSize) {
+		
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_INVALID_PARAMETER, "chunkSize", chunkSize));
+		}
+		
+		this.reader = reader;
+		this.type = type;
+		this.chunkSize = chunkSize;
+	}
+	
+	@Override
+	public boolean hasNext() {
+		
+		if (this.position < this.chunk.size()) {
+			return true;
+		}
+		if (this.finished) {
+			return false;
+		}
+		
+		int lastLine = (int) Math.min((long) this.nextLine + this.chunkSize - 1, Integer.MAX_VALUE);
+		this.chunk = this.reader.readLines(this.type, this.nextLine, lastLine);
+		this.position = 0;
+		this.nextLine += this.chunkSize;
+		this.finished = this.chunk.size() < this.chunkSize;
+		
+		return !this.chunk.isEmpty();
+	}
+	
+	@Override
+	public List<Cell> next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return this.chunk.get(this.position++);
+	}
+	
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+}
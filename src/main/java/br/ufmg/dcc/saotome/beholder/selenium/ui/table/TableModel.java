@@ -0,0 +1,176 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.ui.table;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable values of the cells of a table part, stored by columns. Each column keeps its
+ * values in a contiguous array, so a column is read without copying and without searching.
+ * Lines may have different numbers of cells: a column only has the values of the lines long
+ * enough to reach it, and the lines of such columns are kept in a sorted primitive array.
+ * <p>Lines, columns and positions are counted from 0 in this class.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ * @see TableSnapshot
+ */
+final class TableModel {
+
+	/** Values of each column, in the order of the lines */
+	private final String[][] columns;
+	/** Lines of the values of each column, or null if the column has a value in every line */
+	private final int[][] columnLines;
+	/** Number of cells of each line */
+	private final int[] lineWidths;
+	
+	/**
+	 * Creates the model from the values organized by lines.
+	 * @param lines values of each line
+	 */
+	TableModel(final List<? extends List<String>> lines) {
+		
+		int lineCount = lines.size();
+		this.lineWidths = new int[lineCount];
+		
+		int columnCount = 0;
+		for (int line = 0; line < lineCount; line++) {
+			this.lineWidths[line] = lines.get(line).size();
+			columnCount = Math.max(columnCount, this.lineWidths[line]);
+		}
+		
+		// height of each column: lines whose width reaches it
+		int[] heights = new int[columnCount];
+		for (int width : this.lineWidths) {
+			for (int column = 0; column < width; column++) {
+				heights[column]++;
+			}
+		}
+		
+		this.columns = new String[columnCount][];
+		this.columnLines = new int[columnCount][];
+		for (int column = 0; column < columnCount; column++) {
+			this.columns[column] = new String[heights[column]];
+			if (heights[column] < lineCount) {
+				this.columnLines[column] = new int[heights[column]];
+			}
+		}
+		
+		int[] filled = new int[columnCount];
+		for (int line = 0; line < lineCount; line++) {
+			List<String> values = lines.get(line);
+			for (int column = 0; column < this.lineWidths[line]; column++) {
+				int position = filled[column]++;
+				this.columns[column][position] = values.get(column);
+				if (this.columnLines[column] != null) {
+					this.columnLines[column][position] = line;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @return number of lines
+	 */
+	int getLineCount() {
+		return this.lineWidths.length;
+	}
+	
+	/**
+	 * @return number of columns, the width of the longest line
+	 */
+	int getColumnCount() {
+		return this.columns.length;
+	}
+	
+	/**
+	 * @param line line index
+	 * @return number of cells of the line
+	 */
+	int getLineWidth(final int line) {
+		return this.lineWidths[line];
+	}
+	
+	/**
+	 * @param column column index
+	 * @return number of cells of the column
+	 */
+	int getColumnHeight(final int column) {
+		return this.columns[column].length;
+	}
+	
+	/**
+	 * @param column column index
+	 * @param position position of a value in the column
+	 * @return line of the value
+	 */
+	int getLine(final int column, final int position) {
+		int[] lines = this.columnLines[column];
+		return (lines == null) ? position : lines[position];
+	}
+	
+	/**
+	 * @param line line index
+	 * @param column column index
+	 * @return value of the cell
+	 * @throws IndexOutOfBoundsException if the cell doesn't exist
+	 */
+	String get(final int line, final int column) {
+		
+		if (line < 0 || line >= this.lineWidths.length || column < 0 || column >= this.lineWidths[line]) {
+			throw new IndexOutOfBoundsException("Cell (" + line + ", " + column + ")");
+		}
+		
+		int[] lines = this.columnLines[column];
+		return this.columns[column][(lines == null) ? line : Arrays.binarySearch(lines, line)];
+	}
+	
+	/**
+	 * @param line line index
+	 * @return view of the values of the line
+	 */
+	List<String> getLineValues(final int line) {
+		
+		if (line < 0 || line >= this.lineWidths.length) {
+			throw new IndexOutOfBoundsException("Line " + line);
+		}
+		
+		return new AbstractList<String>() {
+			@Override
+			public String get(final int column) {
+				return TableModel.this.get(line, column);
+			}
+			@Override
+			public int size() {
+				return TableModel.this.lineWidths[line];
+			}
+		};
+	}
+	
+	/**
+	 * @param column column index
+	 * @return view of the values of the column
+	 */
+	List<String> getColumnValues(final int column) {
+		return Collections.unmodifiableList(Arrays.asList(this.columns[column]));
+	}
+}
@@ -0,0 +1,374 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.ui.table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
+import br.ufmg.dcc.saotome.beholder.selenium.ui.table.SeleniumCell.CellType;
+import br.ufmg.dcc.saotome.beholder.ui.table.Cell;
+import br.ufmg.dcc.saotome.beholder.ui.table.Cell.Coordinate;
+
+/**
+ * Query that selects the body lines of a table whose cells satisfy all the conditions. A
+ * column is informed by its index (1 is the first column) or by the text of its head cell.
+ * The query is evaluated inside the browser by {@link SeleniumTable#select(TableQuery)}, with
+ * a single command that returns only the lines selected, or in Java by {@link #select(TableSnapshot)}.
+ * Both evaluations give the same result:
+ * <ul>
+ * <li>texts are compared as the table reads them in batches (see {@link SeleniumTable});</li>
+ * <li>regular expressions must use the syntax shared by Java and JavaScript, and match any
+ * part of the text;</li>
+ * <li>numeric ranges include their limits and read the number of a text ignoring all
+ * characters except digits, '.' and '-'. Texts without a number aren't selected.</li>
+ * </ul>
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ * @see SeleniumTable#select(TableQuery)
+ */
+public final class TableQuery {
+
+	/** Function select(table, bodyLines, bodyCells, headLines, headCells, conditions) that returns
+	 * the lines selected and their texts, or the head text of a column not found. */
+	static final String SELECT_FUNCTION =
+			"function select(table, bodyLines, bodyCells, headLines, headCells, conditions) {"
+			+ "  var columns = [];"
+			+ "  function number(value) {"
+			+ "    var digits = value.replace(/[^0-9.\\-]/g, '');"
+			+ "    return (digits === '') ? NaN : Number(digits);"
+			+ "  }"
+			+ "  function column(reference) {"
+			+ "    if (typeof reference === 'number') { return reference; }"
+			+ "    var lines = nodes(headLines, table);"
+			+ "    for (var l = 0; l < lines.length; l++) {"
+			+ "      var cells = nodes(headCells, lines[l]);"
+			+ "      for (var c = 0; c < cells.length; c++) { if (text(cells[c]) === reference) { return c + 1; } }"
+			+ "    }"
+			+ "    return -1;"
+			+ "  }"
+			+ "  function matches(condition, value) {"
+			+ "    switch (condition[0]) {"
+			+ "      case 'EQUALS': return value === condition[2];"
+			+ "      case 'CONTAINS': return value.indexOf(condition[2]) >= 0;"
+			+ "      case 'MATCHES': return new RegExp(condition[2]).test(value);"
+			+ "      case 'BETWEEN': var n = number(value); return n >= condition[2] && n <= condition[3];"
+			+ "    }"
+			+ "    return false;"
+			+ "  }"
+			+ "  for (var q = 0; q < conditions.length; q++) {"
+			+ "    columns.push(column(conditions[q][1]));"
+			+ "    if (columns[q] < 0) { return {missing: conditions[q][1]}; }"
+			+ "  }"
+			+ "  var lines = nodes(bodyLines, table), indexes = [], texts = [];"
+			+ "  for (var l = 0; l < lines.length; l++) {"
+			+ "    var cells = nodes(bodyCells, lines[l]), selected = true;"
+			+ "    for (var q = 0; q < conditions.length && selected; q++) {"
+			+ "      var cell = cells[columns[q] - 1];"
+			+ "      selected = cell !== undefined && matches(conditions[q], text(cell));"
+			+ "    }"
+			+ "    if (selected) {"
+			+ "      var lineTexts = [];"
+			+ "      for (var c = 0; c < cells.length; c++) { lineTexts.push(text(cells[c])); }"
+			+ "      indexes.push(l + 1);"
+			+ "      texts.push(lineTexts);"
+			+ "    }"
+			+ "  }"
+			+ "  return {lines: indexes, texts: texts};"
+			+ "}";
+	
+	/** Selects the lines. The arguments are the table, the body and head locators and the conditions. */
+	private static final String SELECT_SCRIPT = TableReader.FUNCTIONS + SELECT_FUNCTION
+			+ "return select(arguments[0], arguments[1], arguments[2], arguments[3], arguments[4], arguments[5]);";
+	
+	/** Comparisons made with the text of a cell */
+	private enum Operator {
+		EQUALS,
+		CONTAINS,
+		MATCHES,
+		BETWEEN
+	}
+	
+	/** Condition of a column. */
+	private static final class Condition {
+		
+		private final Operator operator;
+		/** Column index or head text */
+		private final Object column;
+		private final Object value;
+		private final Object limit;
+		/** Compiled regular expression of the MATCHES operator */
+		private final Pattern pattern;
+		
+		Condition(final Operator operator, final Object column, final Object value, final Object limit) {
+			
+			if (column == null) {
+				throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"column"));
+			}
+			if (value == null) {
+				throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"value"));
+			}
+			if (column instanceof Integer && (Integer) column < 1) {
+				throw new IndexOutOfBoundsException("Column "+ErrorMessages.ERROR_INDEX_NEGATIVE_ZERO);
+			}
+			
+			this.operator = operator;
+			this.column = column;
+			this.value = value;
+			this.limit = limit;
+			this.pattern = (operator == Operator.MATCHES) ? Pattern.compile((String) value) : null;
+		}
+		
+		boolean matches(final String text) {
+			switch (this.operator) {
+				case EQUALS:	return text.equals(this.value);
+				case CONTAINS:	return text.contains((String) this.value);
+				case MATCHES:	return this.pattern.matcher(text).find();
+				case BETWEEN:	double number = number(text);
+								return number >= (Double) this.value && number <= (Double) this.limit;
+			}
+			return false;
+		}
+		
+		List<Object> toScriptArgument() {
+			return Arrays.asList(this.operator.name(), this.column, this.value, this.limit);
+		}
+	}
+	
+	private final List<Condition> conditions = new ArrayList<Condition>();
+	
+	/**
+	 * Selects the lines whose cell of the column has exactly the text.
+	 * @param column column index (1 is the first column)
+	 * @param text text of the cell
+	 * @return this query
+	 */
+	public TableQuery whereEquals(final int column, final String text) {
+		return add(Operator.EQUALS, column, text, null);
+	}
+	
+	/**
+	 * Selects the lines whose cell of the column has exactly the text.
+	 * @param column text of the head cell of the column
+	 * @param text text of the cell
+	 * @return this query
+	 */
+	public TableQuery whereEquals(final String column, final String text) {
+		return add(Operator.EQUALS, column, text, null);
+	}
+	
+	/**
+	 * Selects the lines whose cell of the column contains the text.
+	 * @param column column index (1 is the first column)
+	 * @param text part of the text of the cell
+	 * @return this query
+	 */
+	public TableQuery whereContains(final int column, final String text) {
+		return add(Operator.CONTAINS, column, text, null);
+	}
+	
+	/**
+	 * Selects the lines whose cell of the column contains the text.
+	 * @param column text of the head cell of the column
+	 * @param text part of the text of the cell
+	 * @return this query
+	 */
+	public TableQuery whereContains(final String column, final String text) {
+		return add(Operator.CONTAINS, column, text, null);
+	}
+	
+	/**
+	 * Selects the lines whose cell of the column has a part matched by the regular expression.
+	 * @param column column index (1 is the first column)
+	 * @param regex regular expression
+	 * @return this query
+	 */
+	public TableQuery whereMatches(final int column, final String regex) {
+		return add(Operator.MATCHES, column, regex, null);
+	}
+	
+	/**
+	 * Selects the lines whose cell of the column has a part matched by the regular expression.
+	 * @param column text of the head cell of the column
+	 * @param regex regular expression
+	 * @return this query
+	 */
+	public TableQuery whereMatches(final String column, final String regex) {
+		return add(Operator.MATCHES, column, regex, null);
+	}
+	
+	/**
+	 * Selects the lines whose cell of the column has a number between the limits, included.
+	 * @param column column index (1 is the first column)
+	 * @param minimum lowest number selected
+	 * @param maximum highest number selected
+	 * @return this query
+	 */
+	public TableQuery whereBetween(final int column, final double minimum, final double maximum) {
+		return add(Operator.BETWEEN, column, minimum, maximum);
+	}
+	
+	/**
+	 * Selects the lines whose cell of the column has a number between the limits, included.
+	 * @param column text of the head cell of the column
+	 * @param minimum lowest number selected
+	 * @param maximum highest number selected
+	 * @return this query
+	 */
+	public TableQuery whereBetween(final String column, final double minimum, final double maximum) {
+		return add(Operator.BETWEEN, column, minimum, maximum);
+	}
+	
+	private TableQuery add(final Operator operator, final Object column, final Object value, final Object limit) {
+		this.conditions.add(new Condition(operator, column, value, limit));
+		return this;
+	}
+	
+	/**
+	 * Evaluates the query in Java, with the texts of a snapshot.
+	 * @param snapshot snapshot of the table
+	 * @return cells of the body lines selected, organized by lines
+	 */
+	public List<List<Cell>> select(final TableSnapshot snapshot) {
+		
+		int[] columns = new int[this.conditions.size()];
+		for (int index = 0; index < columns.length; index++) {
+			columns[index] = column(snapshot, this.conditions.get(index).column);
+		}
+		
+		List<List<Cell>> lines = snapshot.getCellsByLine(CellType.BODY);
+		List<List<Cell>> selected = new ArrayList<List<Cell>>();
+		
+		for (int line = 1; line <= lines.size(); line++) {
+			if (isSelected(snapshot, line, columns)) {
+				selected.add(lines.get(line - 1));
+			}
+		}
+		return selected;
+	}
+	
+	private boolean isSelected(final TableSnapshot snapshot, final int line, final int[] columns) {
+		
+		int width = snapshot.getColumnCount(CellType.BODY, line);
+		for (int index = 0; index < columns.length; index++) {
+			if (columns[index] > width
+					|| !this.conditions.get(index).matches(snapshot.getText(CellType.BODY, line, columns[index]))) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/** Resolves the column of a condition using the head cells of the snapshot. */
+	private static int column(final TableSnapshot snapshot, final Object reference) {
+		
+		if (reference instanceof Integer) {
+			return (Integer) reference;
+		}
+		
+		for (int line = 1; line <= snapshot.getLineCount(CellType.HEAD); line++) {
+			for (int column = 1; column <= snapshot.getColumnCount(CellType.HEAD, line); column++) {
+				if (snapshot.getText(CellType.HEAD, line, column).equals(reference)) {
+					return column;
+				}
+			}
+		}
+		throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_COLUMN_NOT_FOUND, reference));
+	}
+	
+	/**
+	 * Evaluates the query inside the browser with a single command.
+	 * @param driver driver that runs the script
+	 * @param table table element
+	 * @return cells of the body lines selected, organized by lines
+	 */
+	List<List<Cell>> select(final WebDriver driver, final WebElement table) {
+		
+		Object result = ((JavascriptExecutor) driver).executeScript(SELECT_SCRIPT,
+				table, CellType.BODY.getLinesLocator(), CellType.BODY.getCellsLocator(),
+				CellType.HEAD.getLinesLocator(), CellType.HEAD.getCellsLocator(), getScriptArgument());
+		
+		return toCells(table, result);
+	}
+	
+	/**
+	 * @return the conditions, as expected by the select function
+	 */
+	List<Object> getScriptArgument() {
+		List<Object> arguments = new ArrayList<Object>(this.conditions.size());
+		for (Condition condition : this.conditions) {
+			arguments.add(condition.toScriptArgument());
+		}
+		return arguments;
+	}
+	
+	/**
+	 * Creates the cells of the lines returned by the select function.
+	 * @param table table element
+	 * @param selection value returned by the select function
+	 * @return cells of the body lines selected, organized by lines
+	 */
+	@SuppressWarnings("unchecked")
+	static List<List<Cell>> toCells(final WebElement table, final Object selection) {
+		
+		Map<String, Object> result = (Map<String, Object>) selection;
+		
+		if (result.get("missing") != null) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_COLUMN_NOT_FOUND, result.get("missing")));
+		}
+		
+		List<Number> indexes = (List<Number>) result.get("lines");
+		List<List<String>> texts = (List<List<String>>) result.get("texts");
+		
+		List<List<Cell>> selected = new ArrayList<List<Cell>>(indexes.size());
+		for (int index = 0; index < indexes.size(); index++) {
+			int line = indexes.get(index).intValue();
+			List<String> lineTexts = texts.get(index);
+			List<Cell> cells = new ArrayList<Cell>(lineTexts.size());
+			for (int column = 1; column <= lineTexts.size(); column++) {
+				cells.add(new SeleniumCell(table, new Coordinate(line, column), CellType.BODY, lineTexts.get(column - 1)));
+			}
+			selected.add(Collections.unmodifiableList(cells));
+		}
+		return selected;
+	}
+	
+	/**
+	 * Reads the number of a text, ignoring all characters except digits, '.' and '-'.
+	 * @param text text of a cell
+	 * @return the number, or NaN if the text hasn't a number
+	 */
+	static double number(final String text) {
+		String digits = text.replaceAll("[^0-9.\\-]", "");
+		try {
+			return digits.isEmpty() ? Double.NaN : Double.parseDouble(digits);
+		} catch (NumberFormatException e) {
+			return Double.NaN;
+		}
+	}
+}
@@ -0,0 +1,254 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.ui.table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import br.ufmg.dcc.saotome.beholder.selenium.BatchLocator;
+import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
+import br.ufmg.dcc.saotome.beholder.selenium.ui.table.SeleniumCell.CellType;
+import br.ufmg.dcc.saotome.beholder.ui.table.Cell;
+import br.ufmg.dcc.saotome.beholder.ui.table.Cell.Coordinate;
+
+/**
+ * Reads parts of a table with a single script for each request, no matter the size of the
+ * table. The cells returned have the texts read and only search their elements when clicked.
+ * Lines and columns are counted from 1.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ * @see SeleniumTable
+ */
+final class TableReader {
+
+	/** Functions shared by the table scripts: nodes finds the nodes of a XPath, text reads
+	 * the visible text of an element, as getText does, and probe returns the number of lines
+	 * of a table and a checksum of its text content. */
+	static final String FUNCTIONS =
+			"function nodes(xpath, context) {"
+			+ "  var snapshot = document.evaluate(xpath, context, null, 7, null), result = [];"
+			+ "  for (var i = 0; i < snapshot.snapshotLength; i++) { result.push(snapshot.snapshotItem(i)); }"
+			+ "  return result;"
+			+ "}"
+			+ "function text(element) {"
+			+ "  var value = (element.innerText === undefined) ? element.textContent : element.innerText;"
+			+ "  return value.replace(/\\u00a0/g, ' ').replace(/^\\s+|\\s+$/g, '');"
+			+ "}"
+			+ "function probe(table) {"
+			+ "  var content = table.textContent, checksum = 0;"
+			+ "  for (var i = 0; i < content.length; i++) { checksum = (checksum * 31 + content.charCodeAt(i)) | 0; }"
+			+ "  return [table.getElementsByTagName('tr').length, checksum];"
+			+ "}";
+	
+	/** Reads the texts of the lines between two indexes. The arguments are the table, the
+	 * lines and cells locators and the first and last lines. */
+	private static final String LINES_SCRIPT = FUNCTIONS
+			+ "var lines = nodes(arguments[1], arguments[0]), last = Math.min(arguments[4], lines.length), texts = [];"
+			+ "for (var l = arguments[3] - 1; l < last; l++) {"
+			+ "  var cells = nodes(arguments[2], lines[l]), lineTexts = [];"
+			+ "  for (var c = 0; c < cells.length; c++) { lineTexts.push(text(cells[c])); }"
+			+ "  texts.push(lineTexts);"
+			+ "}"
+			+ "return texts;";
+	
+	/** Reads the texts of a column. The arguments are the table, the lines and cells locators
+	 * and the column. Returns the width of the longest line, the lines that reach the column
+	 * and their texts. */
+	private static final String COLUMN_SCRIPT = FUNCTIONS
+			+ "var lines = nodes(arguments[1], arguments[0]), column = arguments[3], width = 0, indexes = [], texts = [];"
+			+ "for (var l = 0; l < lines.length; l++) {"
+			+ "  var cells = nodes(arguments[2], lines[l]);"
+			+ "  width = Math.max(width, cells.length);"
+			+ "  if (cells.length >= column) { indexes.push(l + 1); texts.push(text(cells[column - 1])); }"
+			+ "}"
+			+ "return {width: width, lines: indexes, texts: texts};";
+	
+	/** Searches some cells and reads their texts. The arguments are the table and, for each
+	 * cell, its lines and cells locators, line and column. Returns the cell elements and their
+	 * texts, null for the cells not found. */
+	private static final String CELLS_SCRIPT = FUNCTIONS
+			+ "var table = arguments[0], cells = arguments[1], lines = {}, elements = [], texts = [];"
+			+ "for (var i = 0; i < cells.length; i++) {"
+			+ "  var locator = cells[i][0], line, cell = null;"
+			+ "  if (!lines.hasOwnProperty(locator)) { lines[locator] = nodes(locator, table); }"
+			+ "  line = lines[locator][cells[i][2] - 1];"
+			+ "  if (line) { cell = nodes(cells[i][1], line)[cells[i][3] - 1] || null; }"
+			+ "  elements.push(cell);"
+			+ "  texts.push((cell === null) ? null : text(cell));"
+			+ "}"
+			+ "return {elements: elements, texts: texts};";
+	
+	private final WebDriver driver;
+	private final WebElement table;
+	
+	/**
+	 * @param driver driver that runs the scripts
+	 * @param table table element
+	 */
+	TableReader(final WebDriver driver, final WebElement table) {
+		
+		if (table == null) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"table"));
+		}
+		
+		this.driver = driver;
+		this.table = table;
+	}
+	
+	/**
+	 * Reads the cells of the lines between two indexes.
+	 * @param type part of the table
+	 * @param first first line (1 is the first line)
+	 * @param last last line, included
+	 * @return cells of the lines that exist between the indexes, organized by lines
+	 */
+	@SuppressWarnings("unchecked")
+	List<List<Cell>> readLines(final CellType type, final int first, final int last) {
+		
+		if (first < 1) {
+			throw new IndexOutOfBoundsException("Line "+ErrorMessages.ERROR_INDEX_NEGATIVE_ZERO);
+		}
+		
+		List<List<String>> texts = (List<List<String>>) execute(LINES_SCRIPT,
+				this.table, type.getLinesLocator(), type.getCellsLocator(), first, last);
+		
+		List<List<Cell>> cellLines = new ArrayList<List<Cell>>(texts.size());
+		int line = first;
+		for (List<String> lineTexts : texts) {
+			List<Cell> cellColumns = new ArrayList<Cell>(lineTexts.size());
+			int column = 1;
+			for (String text : lineTexts) {
+				cellColumns.add(new SeleniumCell(this.table, new Coordinate(line, column), type, text));
+				column++;
+			}
+			cellLines.add(cellColumns);
+			line++;
+		}
+		return cellLines;
+	}
+	
+	/**
+	 * Reads the cells of a column. Lines with less cells are absent of the column.
+	 * @param type part of the table
+	 * @param column column index (1 is the first column)
+	 * @return cells of the column
+	 * @throws IndexOutOfBoundsException if no line reaches the column. As the whole part was
+	 * 		read before, the first column of a part without cells is an empty list.
+	 */
+	@SuppressWarnings("unchecked")
+	List<Cell> readColumn(final CellType type, final int column) {
+		
+		if (column < 1) {
+			throw new IndexOutOfBoundsException("Column "+ErrorMessages.ERROR_INDEX_NEGATIVE_ZERO);
+		}
+		
+		Map<String, Object> result = (Map<String, Object>) execute(COLUMN_SCRIPT,
+				this.table, type.getLinesLocator(), type.getCellsLocator(), column);
+		
+		int width = ((Number) result.get("width")).intValue();
+		if (column > Math.max(width, 1)) {
+			throw new IndexOutOfBoundsException("Column " + column);
+		}
+		
+		List<Number> lines = (List<Number>) result.get("lines");
+		List<String> texts = (List<String>) result.get("texts");
+		
+		List<Cell> cells = new ArrayList<Cell>(texts.size());
+		for (int index = 0; index < texts.size(); index++) {
+			Coordinate coordinate = new Coordinate(lines.get(index).intValue(), column);
+			cells.add(new SeleniumCell(this.table, coordinate, type, texts.get(index)));
+		}
+		return cells;
+	}
+	
+	/**
+	 * Reads the texts of some cells. The cells of this table whose elements were not searched
+	 * yet are searched and read by a single script, which also keeps their elements; the
+	 * other cells read their texts as usual.
+	 * @param cells cells to read
+	 * @return texts of the cells, in the same order
+	 * @throws NoSuchElementException if a cell of the table doesn't exist
+	 */
+	@SuppressWarnings("unchecked")
+	List<String> readTexts(final List<? extends Cell> cells) {
+		
+		List<SeleniumCell> pending = new ArrayList<SeleniumCell>();
+		List<List<Object>> locators = new ArrayList<List<Object>>();
+		for (Cell cell : cells) {
+			if (isPending(cell)) {
+				SeleniumCell seleniumCell = (SeleniumCell) cell;
+				Coordinate coordinate = seleniumCell.getCoordinate();
+				pending.add(seleniumCell);
+				locators.add(Arrays.<Object>asList(seleniumCell.getType().getLinesLocator(),
+						seleniumCell.getType().getCellsLocator(), coordinate.getLineIndex(), coordinate.getColumnIndex()));
+			}
+		}
+		
+		Map<SeleniumCell, String> pendingTexts = new IdentityHashMap<SeleniumCell, String>();
+		if (!pending.isEmpty()) {
+			Map<String, Object> result = (Map<String, Object>) execute(CELLS_SCRIPT, this.table, locators);
+			List<WebElement> elements = (List<WebElement>) result.get("elements");
+			List<String> texts = (List<String>) result.get("texts");
+			for (int index = 0; index < pending.size(); index++) {
+				SeleniumCell cell = pending.get(index);
+				if (elements.get(index) == null) {
+					Coordinate coordinate = cell.getCoordinate();
+					throw new NoSuchElementException(String.format(ErrorMessages.ERROR_CELL_NOT_FOUND,
+							coordinate.getLineIndex(), coordinate.getColumnIndex()));
+				}
+				// the cell is found again by its coordinates if its DOM reference is lost
+				By locator = By.xpath(cell.getType().getCellLocator(cell.getCoordinate()));
+				cell.setCellElement(BatchLocator.adapt(this.table, elements.get(index), locator));
+				pendingTexts.put(cell, texts.get(index));
+			}
+		}
+		
+		List<String> texts = new ArrayList<String>(cells.size());
+		for (Cell cell : cells) {
+			String text = pendingTexts.get(cell);
+			texts.add((text == null) ? cell.getText() : text);
+		}
+		return texts;
+	}
+	
+	/**
+	 * @return true if the cell belongs to this table and its element was not searched yet
+	 */
+	private boolean isPending(final Cell cell) {
+		if (!(cell instanceof SeleniumCell)) {
+			return false;
+		}
+		SeleniumCell seleniumCell = (SeleniumCell) cell;
+		return !seleniumCell.isResolved() && this.table.equals(seleniumCell.getTable());
+	}
+	
+	private Object execute(final String script, final Object... args) {
+		return ((JavascriptExecutor) this.driver).executeScript(script, args);
+	}
+}
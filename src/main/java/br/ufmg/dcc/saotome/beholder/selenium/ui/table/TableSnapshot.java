@@ -0,0 +1,343 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.ui.table;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
+import br.ufmg.dcc.saotome.beholder.selenium.ui.table.SeleniumCell.CellType;
+import br.ufmg.dcc.saotome.beholder.ui.table.Cell;
+import br.ufmg.dcc.saotome.beholder.ui.table.Cell.Coordinate;
+
+/**
+ * Immutable copy of the texts of a table, and optionally of some attributes of its cells, read
+ * from the browser by a single script. The cells returned by the snapshot answer their texts
+ * without sending commands to the browser. Only when a cell is clicked its element is searched
+ * in the table.
+ * <p>The lines and cells are the same ones found by the table methods: for each part (thead,
+ * tbody or tfoot), the lines are the tr elements of the part and the cells are the th (head)
+ * or td (body and foot) elements of each line. Lines and columns are counted from 1.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ * @see SeleniumTable#getSnapshot(String...)
+ */
+public final class TableSnapshot {
+
+	/** Reads all parts of the table. The arguments are the table and the names of the attributes. */
+	private static final String SNAPSHOT_SCRIPT =
+			TableReader.FUNCTIONS
+			+ "var table = arguments[0], names = arguments[1];"
+			+ "function part(linesLocator, cellsLocator) {"
+			+ "  var lines = nodes(linesLocator, table), texts = [], attributes = [];"
+			+ "  for (var n = 0; n < names.length; n++) { attributes.push([]); }"
+			+ "  for (var l = 0; l < lines.length; l++) {"
+			+ "    var cells = nodes(cellsLocator, lines[l]), lineTexts = [];"
+			+ "    for (var c = 0; c < cells.length; c++) { lineTexts.push(text(cells[c])); }"
+			+ "    texts.push(lineTexts);"
+			+ "    for (var n = 0; n < names.length; n++) {"
+			+ "      var values = [];"
+			+ "      for (var c = 0; c < cells.length; c++) { values.push(cells[c].getAttribute(names[n])); }"
+			+ "      attributes[n].push(values);"
+			+ "    }"
+			+ "  }"
+			+ "  return {texts: texts, attributes: attributes};"
+			+ "}"
+			+ "return {"
+			+ "  probe: probe(table),"
+			+ "  HEAD: part(arguments[2], arguments[3]),"
+			+ "  BODY: part(arguments[4], arguments[5]),"
+			+ "  FOOT: part(arguments[6], arguments[7])"
+			+ "};";
+	
+	/** Verifies if the table changed. The argument is the table. */
+	private static final String PROBE_SCRIPT = TableReader.FUNCTIONS + "return probe(arguments[0]);";
+	
+	/** Driver that read the snapshot */
+	private final WebDriver driver;
+	/** Table element, used to find the cells when they are clicked */
+	private final WebElement table;
+	/** Number of lines and checksum of the text of the table when the snapshot was read */
+	private final List<Object> probe;
+	/** Names of the attributes read */
+	private final List<String> attributeNames;
+	/** Texts of each part */
+	private final Map<CellType, TableModel> texts = new EnumMap<CellType, TableModel>(CellType.class);
+	/** Attributes of each part, in the order of the attribute names */
+	private final Map<CellType, TableModel[]> attributes = new EnumMap<CellType, TableModel[]>(CellType.class);
+	
+	/**
+	 * Reads a table from the browser.
+	 * @param driver driver that runs the script
+	 * @param table table element
+	 * @param attributeNames names of the attributes read from each cell
+	 */
+	@SuppressWarnings("unchecked")
+	TableSnapshot(final WebDriver driver, final WebElement table, final String... attributeNames) {
+		
+		if (table == null) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"table"));
+		}
+		
+		this.driver = driver;
+		this.table = table;
+		this.attributeNames = Collections.unmodifiableList(new ArrayList<String>(Arrays.asList(attributeNames)));
+		
+		Map<String, Object> result = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(SNAPSHOT_SCRIPT,
+				table, this.attributeNames,
+				CellType.HEAD.getLinesLocator(), CellType.HEAD.getCellsLocator(),
+				CellType.BODY.getLinesLocator(), CellType.BODY.getCellsLocator(),
+				CellType.FOOT.getLinesLocator(), CellType.FOOT.getCellsLocator());
+		
+		this.probe = (List<Object>) result.get("probe");
+		
+		for (CellType type : CellType.values()) {
+			Map<String, Object> part = (Map<String, Object>) result.get(type.name());
+			this.texts.put(type, new TableModel((List<List<String>>) part.get("texts")));
+			
+			List<List<List<String>>> values = (List<List<List<String>>>) part.get("attributes");
+			TableModel[] models = new TableModel[values.size()];
+			for (int index = 0; index < models.length; index++) {
+				models[index] = new TableModel(values.get(index));
+			}
+			this.attributes.put(type, models);
+		}
+	}
+	
+	/**
+	 * Verifies, with a single command, if the table is the same one read by the snapshot. The
+	 * number of lines and a checksum of the text of the table are compared, so changes of
+	 * lines and texts are detected, but changes only of attributes are not.
+	 * @return true if the table didn't change
+	 */
+	public boolean isCurrent() {
+		return this.probe.equals(((JavascriptExecutor) this.driver).executeScript(PROBE_SCRIPT, this.table));
+	}
+	
+	/**
+	 * Reads the table again, with the same attributes, if it changed.
+	 * @return this snapshot if the table didn't change, or a new one
+	 */
+	public TableSnapshot refresh() {
+		if (isCurrent()) {
+			return this;
+		}
+		return new TableSnapshot(this.driver, this.table, this.attributeNames.toArray(new String[0]));
+	}
+	
+	/**
+	 * Creates a hash index of the body lines by the texts of some columns. The index
+	 * verifies if the table changed before each search and reads it again if so.
+	 * @param columns columns of the key (1 is the first column)
+	 * @return the index
+	 */
+	public TableIndex createIndex(final int... columns) {
+		return new TableIndex(this, columns);
+	}
+	
+	/**
+	 * @param type part of the table
+	 * @return views of the texts of the lines of the part
+	 */
+	List<List<String>> getLinesTexts(final CellType type) {
+		
+		final TableModel model = this.texts.get(type);
+		
+		return new AbstractList<List<String>>() {
+			@Override
+			public List<String> get(final int line) {
+				return model.getLineValues(line);
+			}
+			@Override
+			public int size() {
+				return model.getLineCount();
+			}
+		};
+	}
+	
+	/**
+	 * @return table element read by the snapshot
+	 */
+	WebElement getTable() {
+		return this.table;
+	}
+	
+	/**
+	 * @return names of the attributes read from each cell
+	 */
+	public List<String> getAttributeNames() {
+		return this.attributeNames;
+	}
+	
+	/**
+	 * @param type part of the table
+	 * @return number of lines of the part
+	 */
+	public int getLineCount(final CellType type) {
+		return this.texts.get(type).getLineCount();
+	}
+	
+	/**
+	 * @param type part of the table
+	 * @param line line index (1 is the first line)
+	 * @return number of cells of the line
+	 */
+	public int getColumnCount(final CellType type, final int line) {
+		validateLine(line);
+		return this.texts.get(type).getLineWidth(line - 1);
+	}
+	
+	/**
+	 * @param type part of the table
+	 * @param line line index (1 is the first line)
+	 * @param column column index (1 is the first column)
+	 * @return text of the cell
+	 */
+	public String getText(final CellType type, final int line, final int column) {
+		validateLine(line);
+		return this.texts.get(type).get(line - 1, column - 1);
+	}
+	
+	/**
+	 * @param type part of the table
+	 * @param line line index (1 is the first line)
+	 * @param column column index (1 is the first column)
+	 * @param name name of an attribute read by the snapshot
+	 * @return value of the attribute, or null if the cell hasn't the attribute
+	 */
+	public String getAttribute(final CellType type, final int line, final int column, final String name) {
+		
+		int attribute = this.attributeNames.indexOf(name);
+		if (attribute < 0) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_INVALID_PARAMETER, "name", name));
+		}
+		
+		validateLine(line);
+		return this.attributes.get(type)[attribute].get(line - 1, column - 1);
+	}
+	
+	/**
+	 * @param type part of the table
+	 * @param line line index (1 is the first line)
+	 * @param column column index (1 is the first column)
+	 * @return the cell, with the text read by the snapshot
+	 */
+	public Cell getCell(final CellType type, final int line, final int column) {
+		return new SeleniumCell(this.table, new Coordinate(line, column), type, getText(type, line, column));
+	}
+	
+	/**
+	 * Returns the cells of a part organized by lines. The lists are views of the snapshot: a
+	 * cell is created when it's taken from its line.
+	 * @param type part of the table
+	 * @return the cells of the part, organized by lines
+	 */
+	public List<List<Cell>> getCellsByLine(final CellType type) {
+		
+		final TableModel model = this.texts.get(type);
+		
+		return new AbstractList<List<Cell>>() {
+			@Override
+			public List<Cell> get(final int line) {
+				return getLineCells(type, model, line);
+			}
+			@Override
+			public int size() {
+				return model.getLineCount();
+			}
+		};
+	}
+	
+	/**
+	 * Returns the cells of a part organized by columns. Lines with less cells are absent of
+	 * the last columns. The lists are views of the snapshot: a cell is created when it's taken
+	 * from its column.
+	 * @param type part of the table
+	 * @return the cells of the part, organized by columns
+	 */
+	public List<List<Cell>> getCellsByColumn(final CellType type) {
+		
+		final TableModel model = this.texts.get(type);
+		
+		// a part without cells has one empty column, as the table always returned
+		if (model.getColumnCount() == 0) {
+			return Collections.singletonList(Collections.<Cell>emptyList());
+		}
+		
+		return new AbstractList<List<Cell>>() {
+			@Override
+			public List<Cell> get(final int column) {
+				return getColumnCells(type, model, column);
+			}
+			@Override
+			public int size() {
+				return model.getColumnCount();
+			}
+		};
+	}
+	
+	private List<Cell> getLineCells(final CellType type, final TableModel model, final int line) {
+		
+		final List<String> values = model.getLineValues(line);
+		
+		return new AbstractList<Cell>() {
+			@Override
+			public Cell get(final int column) {
+				return new SeleniumCell(table, new Coordinate(line + 1, column + 1), type, values.get(column));
+			}
+			@Override
+			public int size() {
+				return values.size();
+			}
+		};
+	}
+	
+	private List<Cell> getColumnCells(final CellType type, final TableModel model, final int column) {
+		
+		final List<String> values = model.getColumnValues(column);
+		
+		return new AbstractList<Cell>() {
+			@Override
+			public Cell get(final int position) {
+				int line = model.getLine(column, position);
+				return new SeleniumCell(table, new Coordinate(line + 1, column + 1), type, values.get(position));
+			}
+			@Override
+			public int size() {
+				return values.size();
+			}
+		};
+	}
+	
+	private void validateLine(final int line) {
+		if (line < 1) {
+			throw new IndexOutOfBoundsException("Line "+ErrorMessages.ERROR_INDEX_NEGATIVE_ZERO);
+		}
+	}
+}
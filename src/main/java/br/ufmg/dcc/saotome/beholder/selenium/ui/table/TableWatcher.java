@@ -0,0 +1,223 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.ui.table;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriver.Timeouts;
+import org.openqa.selenium.WebElement;
+
+import br.ufmg.dcc.saotome.beholder.selenium.Deadline;
+import br.ufmg.dcc.saotome.beholder.selenium.SeleniumController;
+import br.ufmg.dcc.saotome.beholder.selenium.message.ErrorMessages;
+import br.ufmg.dcc.saotome.beholder.selenium.metrics.FlightRecorder;
+import br.ufmg.dcc.saotome.beholder.selenium.metrics.WaitOutcome;
+import br.ufmg.dcc.saotome.beholder.selenium.ui.table.SeleniumCell.CellType;
+import br.ufmg.dcc.saotome.beholder.ui.table.Cell;
+
+/**
+ * Waits for changes of a table inside the browser. A single asynchronous script observes the
+ * mutations of the table with a MutationObserver and answers when the expected change happens,
+ * so nothing is polled by the Java side. The observer doesn't see the table being removed from
+ * the page, for example when it's replaced by a new one, so the script also checks every
+ * {@value #DETACH_CHECK_INTERVAL} milliseconds that the table is still in the document.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ * @see SeleniumTable#waitForChange()
+ */
+final class TableWatcher {
+
+	/** Seconds added to the script timeout of the driver, so the script answers its own timeout.
+	 * The timeout of the driver goes back to {@link SeleniumController#SCRIPT_TIMEOUT} after the wait. */
+	private static final long SCRIPT_TIMEOUT_MARGIN = 5;
+	
+	/** Interval between the checks that the table is still in the document */
+	private static final long DETACH_CHECK_INTERVAL = 250; // milliseconds
+	
+	/** Observes the table. The arguments are the table, the body and head locators, the
+	 * conditions of the lines (or null to wait for any change), the texts of the body before
+	 * the change (or null to read them now), the timeout and the interval between the checks that
+	 * the table is in the document, both in milliseconds. Answers with detached when the table
+	 * is removed from the document. */
+	private static final String WATCH_SCRIPT = TableReader.FUNCTIONS + TableQuery.SELECT_FUNCTION
+			+ "var table = arguments[0], bodyLines = arguments[1], bodyCells = arguments[2],"
+			+ "  headLines = arguments[3], headCells = arguments[4], conditions = arguments[5],"
+			+ "  before = arguments[6], timeout = arguments[7], interval = arguments[8], done = arguments[arguments.length - 1],"
+			+ "  evaluations = 0, finished = false, observer = null, timer = null, check = null;"
+			+ "function attached() { return document.documentElement.contains(table); }"
+			+ "function read() {"
+			+ "  var lines = nodes(bodyLines, table), texts = [];"
+			+ "  for (var l = 0; l < lines.length; l++) {"
+			+ "    var cells = nodes(bodyCells, lines[l]), lineTexts = [];"
+			+ "    for (var c = 0; c < cells.length; c++) { lineTexts.push(text(cells[c])); }"
+			+ "    texts.push(lineTexts);"
+			+ "  }"
+			+ "  return texts;"
+			+ "}"
+			+ "function diff(after) {"
+			+ "  var keys = {}, restBefore = [], restAfter = [], added = [], removed = [], changed = [];"
+			+ "  for (var b = 0; b < before.length; b++) {"
+			+ "    var key = JSON.stringify(before[b]);"
+			+ "    (keys[key] = keys[key] || []).push(b);"
+			+ "  }"
+			+ "  for (var a = 0; a < after.length; a++) {"
+			+ "    var same = keys[JSON.stringify(after[a])];"
+			+ "    if (same && same.length) { same.shift(); } else { restAfter.push(a); }"
+			+ "  }"
+			+ "  for (var key in keys) { if (keys.hasOwnProperty(key)) { restBefore = restBefore.concat(keys[key]); } }"
+			+ "  restBefore.sort(function(x, y) { return x - y; });"
+			+ "  if (restBefore.length === restAfter.length) {"
+			+ "    for (var i = 0; i < restAfter.length; i++) {"
+			+ "      var previous = before[restBefore[i]], current = after[restAfter[i]];"
+			+ "      for (var c = 0; c < Math.max(previous.length, current.length); c++) {"
+			+ "        var was = (c < previous.length) ? previous[c] : null, is = (c < current.length) ? current[c] : null;"
+			+ "        if (was !== is) { changed.push([restAfter[i] + 1, c + 1, was, is]); }"
+			+ "      }"
+			+ "    }"
+			+ "  } else {"
+			+ "    for (var i = 0; i < restBefore.length; i++) { removed.push([restBefore[i] + 1, before[restBefore[i]]]); }"
+			+ "    for (var i = 0; i < restAfter.length; i++) { added.push([restAfter[i] + 1, after[restAfter[i]]]); }"
+			+ "  }"
+			+ "  return (added.length || removed.length || changed.length) ? {added: added, removed: removed, changed: changed} : null;"
+			+ "}"
+			+ "function evaluate() {"
+			+ "  evaluations++;"
+			+ "  if (conditions === null) { return diff(read()); }"
+			+ "  var selection = select(table, bodyLines, bodyCells, headLines, headCells, conditions);"
+			+ "  return (selection.missing !== undefined || selection.lines.length) ? selection : null;"
+			+ "}"
+			+ "function finish(answer) {"
+			+ "  if (finished) { return; }"
+			+ "  finished = true;"
+			+ "  if (observer !== null) { observer.disconnect(); }"
+			+ "  if (timer !== null) { clearTimeout(timer); }"
+			+ "  if (check !== null) { clearInterval(check); }"
+			+ "  answer.evaluations = evaluations;"
+			+ "  done(answer);"
+			+ "}"
+			+ "if (conditions === null && before === null) {"
+			+ "  before = read();"
+			+ "} else {"
+			+ "  var first = evaluate();"
+			+ "  if (first !== null) { finish({result: first}); return; }"
+			+ "}"
+			+ "observer = new MutationObserver(function() {"
+			+ "  if (!attached()) { finish({detached: true}); return; }"
+			+ "  var result = evaluate();"
+			+ "  if (result !== null) { finish({result: result}); }"
+			+ "});"
+			+ "observer.observe(table, {childList: true, subtree: true, characterData: true, attributes: true});"
+			+ "timer = setTimeout(function() { finish(attached() ? {timeout: true} : {detached: true}); }, timeout);"
+			+ "check = setInterval(function() { if (!attached()) { finish({detached: true}); } }, interval);";
+	
+	private final WebDriver driver;
+	private final WebElement table;
+	
+	/**
+	 * @param driver driver that runs the script
+	 * @param table table element
+	 */
+	TableWatcher(final WebDriver driver, final WebElement table) {
+		
+		if (table == null) {
+			throw new IllegalArgumentException(String.format(ErrorMessages.ERROR_TEMPLATE_VARIABLE_NULL,"table"));
+		}
+		
+		this.driver = driver;
+		this.table = table;
+	}
+	
+	/**
+	 * Waits until the body lines differ from the ones read by a snapshot, or from the ones
+	 * in the table now.
+	 * @param before snapshot read before the change, or null to compare with the table now
+	 * @param timeoutSeconds time to wait, in seconds
+	 * @return differences of the body lines
+	 * @throws TimeoutException if the table doesn't change before the timeout
+	 * @throws StaleElementReferenceException if the table is removed from the page
+	 * @see #watch(List, List, long, String)
+	 */
+	@SuppressWarnings("unchecked")
+	TableChange waitForChange(final TableSnapshot before, final long timeoutSeconds) {
+		List<List<String>> texts = (before == null) ? null : before.getLinesTexts(CellType.BODY);
+		return new TableChange(this.table, (Map<String, Object>) watch(null, texts, timeoutSeconds, "SeleniumTable.waitForChange"));
+	}
+	
+	/**
+	 * Waits until at least one body line is selected by the query.
+	 * @param query conditions of the lines
+	 * @param timeoutSeconds time to wait, in seconds
+	 * @return cells of the lines selected, organized by lines
+	 * @throws TimeoutException if no line is selected before the timeout
+	 * @throws StaleElementReferenceException if the table is removed from the page
+	 * @see #watch(List, List, long, String)
+	 */
+	List<List<Cell>> waitForLines(final TableQuery query, final long timeoutSeconds) {
+		return TableQuery.toCells(this.table, watch(query.getScriptArgument(), null, timeoutSeconds, "SeleniumTable.waitForLines"));
+	}
+	
+	/**
+	 * Runs the watch script with a script timeout long enough for the wait. When the script
+	 * finishes, the script timeout of the driver is set to
+	 * {@link SeleniumController#SCRIPT_TIMEOUT}, as WebDriver can't read the previous one; on
+	 * drivers not created by the controller, this replaces a timeout set by the test.
+	 */
+	@SuppressWarnings("unchecked")
+	private Object watch(final List<Object> conditions, final List<List<String>> before, final long timeoutSeconds,
+			final String description) {
+		
+		// inside the deadline of another wait of the thread, the table is not watched beyond it
+		long budget = Deadline.within(timeoutSeconds, TimeUnit.SECONDS).remaining(TimeUnit.MILLISECONDS);
+		Timeouts timeouts = this.driver.manage().timeouts();
+		timeouts.setScriptTimeout(budget + TimeUnit.SECONDS.toMillis(SCRIPT_TIMEOUT_MARGIN), TimeUnit.MILLISECONDS);
+		
+		WaitOutcome outcome = WaitOutcome.FAILED;
+		int evaluations = 0;
+		long start = System.nanoTime();
+		try {
+			Map<String, Object> answer = (Map<String, Object>) ((JavascriptExecutor) this.driver).executeAsyncScript(WATCH_SCRIPT,
+					this.table, CellType.BODY.getLinesLocator(), CellType.BODY.getCellsLocator(),
+					CellType.HEAD.getLinesLocator(), CellType.HEAD.getCellsLocator(),
+					conditions, before, budget, DETACH_CHECK_INTERVAL);
+			
+			evaluations = ((Number) answer.get("evaluations")).intValue();
+			if (Boolean.TRUE.equals(answer.get("timeout"))) {
+				outcome = WaitOutcome.TIMED_OUT;
+				throw new TimeoutException(String.format(ErrorMessages.ERROR_TABLE_WAIT_TIMEOUT, timeoutSeconds));
+			}
+			if (Boolean.TRUE.equals(answer.get("detached"))) {
+				throw new StaleElementReferenceException(ErrorMessages.ERROR_TABLE_DETACHED);
+			}
+			
+			outcome = WaitOutcome.SATISFIED;
+			return answer.get("result");
+		} finally {
+			// the other scripts of the session keep the timeout configured by the controller
+			timeouts.setScriptTimeout(SeleniumController.SCRIPT_TIMEOUT, TimeUnit.SECONDS);
+			FlightRecorder.waitFinished(description, timeoutSeconds, evaluations, outcome, System.nanoTime() - start);
+		}
+	}
+}
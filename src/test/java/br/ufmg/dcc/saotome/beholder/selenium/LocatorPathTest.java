@@ -0,0 +1,124 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the conversion of the WebDriver locators to the steps of the relocation script, which
+ * reads the type and value written by By.toString().
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ */
+public class LocatorPathTest {
+
+	private static void assertStep(final By locator, final String type, final Object value) {
+		List<Object> step = LocatorPath.step(locator, 2);
+		assert Arrays.<Object>asList(type, value, 2).equals(step) : locator + " -> " + step;
+	}
+	
+	@Test
+	public void idIsAStep() {
+		assertStep(By.id("user"), "id", "user");
+	}
+	
+	@Test
+	public void nameIsAStep() {
+		assertStep(By.name("country"), "name", "country");
+	}
+	
+	@Test
+	public void classNameIsAStep() {
+		assertStep(By.className("selected"), "className", "selected");
+	}
+	
+	@Test
+	public void tagNameIsAStep() {
+		assertStep(By.tagName("tr"), "tagName", "tr");
+	}
+	
+	@Test
+	public void cssSelectorIsAStep() {
+		assertStep(By.cssSelector("table > tbody td:first-child"), "cssSelector", "table > tbody td:first-child");
+	}
+	
+	@Test
+	public void xpathIsAStepEvenWithTheSeparatorInside() {
+		assertStep(By.xpath("//td[text()='Total: 10']"), "xpath", "//td[text()='Total: 10']");
+	}
+	
+	@Test
+	public void scriptableLocatorIsAStepWhateverItsDescription() {
+		
+		final List<String> value = Arrays.asList("input", "type", "text");
+		class ByType extends By implements ScriptableLocator {
+			
+			@Override
+			public List<WebElement> findElements(final SearchContext context) {
+				return null;
+			}
+			
+			public String getScriptType() {
+				return "attribute";
+			}
+			
+			public Object getScriptValue() {
+				return value;
+			}
+			
+			@Override
+			public String toString() {
+				return "By.linkText: text";
+			}
+		}
+		
+		assertStep(new ByType(), "attribute", value);
+	}
+	
+	@Test
+	public void linkTextIsNotAStep() {
+		assert LocatorPath.step(By.linkText("Next"), 0) == null;
+		assert LocatorPath.step(By.partialLinkText("Ne"), 0) == null;
+	}
+	
+	@Test
+	public void locatorWithoutTheWebDriverDescriptionIsNotAStep() {
+		
+		By custom = new By() {
+			@Override
+			public List<WebElement> findElements(final SearchContext context) {
+				return null;
+			}
+			
+			@Override
+			public String toString() {
+				return "custom locator";
+			}
+		};
+		
+		assert LocatorPath.step(custom, 0) == null;
+	}
+}
@@ -0,0 +1,228 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the deadlines shared by nested waits, with a driver that answers nothing. The tests
+ * check how the waits relate to each other, not how long they take: the only measure of time
+ * is an upper bound far below the timeout of the long waits, which only a wait that ignored
+ * its deadline would reach on a loaded machine.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ */
+public class SeleniumWaitTest {
+
+	/** Timeout of the long waits, that a deadline must cut */
+	private static final long LONG_TIMEOUT = 30; // seconds
+	/** Time a wait cut by a deadline never reaches, half the timeout of the long waits */
+	private static final long UPPER_BOUND = TimeUnit.SECONDS.toMillis(LONG_TIMEOUT) / 2; // milliseconds
+	
+	private static final WebDriver DRIVER = (WebDriver) Proxy.newProxyInstance(WebDriver.class.getClassLoader(),
+			new Class<?>[] {WebDriver.class}, new InvocationHandler() {
+				public Object invoke(Object proxy, Method method, Object[] args) {
+					return null;
+				}
+			});
+	
+	/** Condition that counts its evaluations and is never satisfied. It may run a nested wait in each evaluation. */
+	private static class Counter implements ExpectedCondition<Boolean> {
+		
+		int polls;
+		
+		public Boolean apply(final WebDriver driver) {
+			this.polls++;
+			nested();
+			return Boolean.FALSE;
+		}
+		
+		void nested() {
+			// no nested wait
+		}
+	}
+	
+	private static long elapsedMillis(final long start) {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+	}
+	
+	@Test
+	public void satisfiedConditionIsEvaluatedOnce() {
+		
+		final Deadline[] inside = new Deadline[1];
+		String result = SeleniumWait.until(DRIVER, LONG_TIMEOUT, "satisfied", new ExpectedCondition<String>() {
+			public String apply(WebDriver driver) {
+				inside[0] = Deadline.current();
+				return "done";
+			}
+		});
+		
+		assert "done".equals(result);
+		assert inside[0] != null;
+		assert Deadline.current() == null;
+	}
+	
+	@Test
+	public void nestedWaitDoesNotGoBeyondTheOuterDeadline() {
+		
+		final Counter inner = new Counter();
+		final long[] innerElapsed = new long[1];
+		Counter outer = new Counter() {
+			@Override
+			void nested() {
+				long start = System.nanoTime();
+				try {
+					SeleniumWait.until(DRIVER, LONG_TIMEOUT, "inner", inner);
+					assert false : "the inner wait must time out";
+				} catch (TimeoutException e) {
+					// the outer deadline expired
+					innerElapsed[0] = Math.max(innerElapsed[0], elapsedMillis(start));
+				}
+			}
+		};
+		
+		long start = System.nanoTime();
+		try {
+			SeleniumWait.until(DRIVER, 1, "outer", outer);
+			assert false : "the outer wait must time out";
+		} catch (TimeoutException e) {
+			long elapsed = elapsedMillis(start);
+			assert elapsed >= 1000 : elapsed;
+			assert elapsed < UPPER_BOUND : elapsed;
+		}
+		
+		// the inner waits gave up at the outer deadline instead of waiting their own timeout
+		assert innerElapsed[0] < UPPER_BOUND : innerElapsed[0];
+		assert outer.polls >= 1 : outer.polls;
+		assert inner.polls >= outer.polls : inner.polls;
+		assert Deadline.current() == null;
+	}
+	
+	@Test
+	public void shorterNestedWaitKeepsItsOwnTimeout() {
+		
+		final Counter inner = new Counter();
+		final int[] outerPolls = new int[1];
+		
+		long start = System.nanoTime();
+		Boolean result = SeleniumWait.until(DRIVER, LONG_TIMEOUT, "outer", new ExpectedCondition<Boolean>() {
+			public Boolean apply(WebDriver driver) {
+				outerPolls[0]++;
+				try {
+					SeleniumWait.until(DRIVER, 1, "inner", inner);
+				} catch (TimeoutException e) {
+					return Boolean.TRUE;
+				}
+				return Boolean.FALSE;
+			}
+		});
+		long elapsed = elapsedMillis(start);
+		
+		// the inner wait timed out by its own timeout, within the first evaluation of the outer one
+		assert Boolean.TRUE.equals(result);
+		assert outerPolls[0] == 1;
+		assert inner.polls >= 1 : inner.polls;
+		assert elapsed >= 1000 : elapsed;
+		assert elapsed < UPPER_BOUND : elapsed;
+	}
+	
+	@Test
+	public void waitInsideAnExpiredDeadlineEvaluatesItsConditionOnce() {
+		
+		Counter condition = new Counter();
+		Deadline previous = Deadline.after(0, TimeUnit.SECONDS).activate();
+		long start = System.nanoTime();
+		try {
+			SeleniumWait.until(DRIVER, LONG_TIMEOUT, "expired", condition);
+			assert false : "the wait must time out";
+		} catch (TimeoutException e) {
+			assert elapsedMillis(start) < UPPER_BOUND;
+		} finally {
+			Deadline.restore(previous);
+		}
+		
+		assert condition.polls == 1 : condition.polls;
+	}
+	
+	@Test
+	public void nestedWaitAfterTheOuterDeadlineEvaluatesItsConditionOnce() {
+		
+		final Counter inner = new Counter();
+		final long[] innerElapsed = new long[1];
+		Counter outer = new Counter() {
+			@Override
+			void nested() {
+				// the inner wait starts only after the outer deadline expired
+				while (!Deadline.current().isExpired()) {
+					try {
+						Thread.sleep(50);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+				}
+				long start = System.nanoTime();
+				try {
+					SeleniumWait.until(DRIVER, LONG_TIMEOUT, "inner", inner);
+				} catch (TimeoutException e) {
+					innerElapsed[0] = elapsedMillis(start);
+				}
+			}
+		};
+		
+		try {
+			SeleniumWait.until(DRIVER, 1, "outer", outer);
+			assert false : "the outer wait must time out";
+		} catch (TimeoutException e) {
+			// expected
+		}
+		
+		assert outer.polls == 1 : outer.polls;
+		assert inner.polls == 1 : inner.polls;
+		assert innerElapsed[0] < UPPER_BOUND : innerElapsed[0];
+	}
+	
+	@Test
+	public void deadlineWithinAnotherOneNeverExpiresAfterIt() {
+		
+		Deadline outer = Deadline.after(1, TimeUnit.SECONDS);
+		Deadline previous = outer.activate();
+		try {
+			assert Deadline.within(LONG_TIMEOUT, TimeUnit.SECONDS) == outer;
+			Deadline shorter = Deadline.within(100, TimeUnit.MILLISECONDS);
+			assert shorter != outer;
+			assert shorter.remaining(TimeUnit.MILLISECONDS) <= 100;
+		} finally {
+			Deadline.restore(previous);
+		}
+		
+		assert Deadline.current() == null;
+		assert Deadline.after(0, TimeUnit.SECONDS).isExpired();
+		assert Deadline.after(0, TimeUnit.SECONDS).remaining(TimeUnit.NANOSECONDS) == 0;
+	}
+}
@@ -0,0 +1,160 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import br.ufmg.dcc.saotome.beholder.selenium.metrics.Command;
+import br.ufmg.dcc.saotome.beholder.selenium.metrics.SeleniumMetrics;
+
+/**
+ * Measures the cost of the commands of WebElementAdapter without a browser. The element
+ * wrapped answers every command immediately, so only the adapter is measured. Run the
+ * main method to see the allocation per call (gc.alloc.rate.norm): the <b>legacy</b>
+ * benchmarks reproduce the anonymous resolver that was created by every command before the
+ * resolvers became shared, and the others call the adapter.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WebElementAdapterBenchmark {
+
+	private static final SeleniumMetrics METRICS = SeleniumMetrics.getInstance();
+	
+	private static final By LOCATOR = By.id("benchmark");
+	
+	private WebElement element;
+	private WebElementAdapter adapter;
+	
+	@Setup
+	public void setUp() {
+		this.element = (WebElement) Proxy.newProxyInstance(WebElement.class.getClassLoader(),
+				new Class<?>[] {WebElement.class}, new InvocationHandler() {
+					public Object invoke(Object proxy, Method method, Object[] args) {
+						if (method.getName().equals("isDisplayed")) {
+							return Boolean.TRUE;
+						}
+						return "text";
+					}
+				});
+		this.adapter = new WebElementAdapter(this.element, null, LOCATOR);
+	}
+	
+	@Benchmark
+	public String getText() {
+		return this.adapter.getText();
+	}
+	
+	@Benchmark
+	public boolean isDisplayed() {
+		return this.adapter.isDisplayed();
+	}
+	
+	@Benchmark
+	public String legacyGetText(final Blackhole blackhole) {
+		LegacyResolver<String> resolver = new LegacyResolver<String>(Command.ELEMENT_GET_TEXT) {
+			@Override
+			public String execute(WebElement element) {
+				return element.getText();
+			}
+		};
+		// the resolver escapes, so it's allocated as it was by each command
+		blackhole.consume(resolver);
+		return resolver.waitForElement();
+	}
+	
+	@Benchmark
+	public boolean legacyIsDisplayed(final Blackhole blackhole) {
+		LegacyResolver<Boolean> resolver = new LegacyResolver<Boolean>(Command.ELEMENT_IS_DISPLAYED) {
+			@Override
+			public Boolean execute(WebElement element) {
+				return element.isDisplayed();
+			}
+		};
+		blackhole.consume(resolver);
+		return resolver.waitForElement();
+	}
+	
+	/** Resolver created by each command before the resolvers became shared, including the
+	 * lookup of the driver of the session done by each command. The command is recorded as the
+	 * adapter records it, so only the resolvers are compared. */
+	private abstract class LegacyResolver<T> {
+		
+		private final Command command;
+		
+		LegacyResolver(final Command command) {
+			this.command = command;
+		}
+		
+		public abstract T execute(WebElement element);
+		
+		public T waitForElement(final WebDriver driver, final WebElement element,
+				final WebElementAdapter parent, final By locator, final Boolean isUnique) {
+			long start = System.nanoTime();
+			try {
+				return this.execute(element);
+			} catch (StaleElementReferenceException staleException) {
+				// the element of the benchmark never loses its reference
+				throw staleException;
+			} finally {
+				METRICS.record(this.command, start);
+			}
+		}
+		
+		public T waitForElement() {
+			return waitForElement(SeleniumController.getDriver(), element, null, LOCATOR, Boolean.TRUE);
+		}
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(WebElementAdapterBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+}
@@ -0,0 +1,113 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.metrics;
+
+import org.testng.annotations.Test;
+
+/**
+ * Tests the counter and the latency histogram of a command.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ */
+public class CommandStatsTest {
+
+	private static final long MICRO = 1000; // nanoseconds
+	
+	private static int bucketOf(final long nanos) {
+		
+		CommandStats stats = new CommandStats(Command.GET);
+		stats.record(nanos);
+		for (int bucket = 0; bucket < CommandStats.BUCKETS; bucket++) {
+			if (stats.getBucketCount(bucket) == 1) {
+				return bucket;
+			}
+		}
+		return -1;
+	}
+	
+	@Test
+	public void bucketsAreLimitedByPowersOfTwoMicroseconds() {
+		
+		assert bucketOf(0) == 0;
+		assert bucketOf(999) == 0;
+		assert bucketOf(1 * MICRO) == 1;
+		assert bucketOf(2 * MICRO - 1) == 1;
+		assert bucketOf(2 * MICRO) == 2;
+		assert bucketOf(3 * MICRO) == 2;
+		assert bucketOf(4 * MICRO) == 3;
+		assert bucketOf(1023 * MICRO) == 10;
+		assert bucketOf(1024 * MICRO) == 11;
+	}
+	
+	@Test
+	public void lastBucketHoldsTheSlowestExecutions() {
+		
+		assert bucketOf((1L << 30) * MICRO) == CommandStats.BUCKETS - 1;
+		assert bucketOf(Long.MAX_VALUE) == CommandStats.BUCKETS - 1;
+	}
+	
+	@Test
+	public void percentileIsTheUpperLimitOfItsBucket() {
+		
+		CommandStats stats = new CommandStats(Command.GET);
+		for (int execution = 0; execution < 9; execution++) {
+			stats.record(1 * MICRO);
+		}
+		stats.record(1000 * MICRO);
+		
+		// nine executions below 2 microseconds and one below 1024
+		assert stats.getPercentileMicros(0) == 2;
+		assert stats.getPercentileMicros(50) == 2;
+		assert stats.getPercentileMicros(90) == 2;
+		assert stats.getPercentileMicros(91) == 1024;
+		assert stats.getPercentileMicros(99) == 1024;
+		assert stats.getPercentileMicros(100) == 1024;
+	}
+	
+	@Test
+	public void percentileOfNoExecutionIsZero() {
+		assert new CommandStats(Command.GET).getPercentileMicros(50) == 0;
+	}
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void percentileAboveOneHundredIsRefused() {
+		new CommandStats(Command.GET).getPercentileMicros(100.5);
+	}
+	
+	@Test
+	public void totalsAreKeptUntilReset() {
+		
+		CommandStats stats = new CommandStats(Command.GET);
+		stats.record(10 * MICRO);
+		stats.record(30 * MICRO);
+		
+		assert stats.getCount() == 2;
+		assert stats.getTotalNanos() == 40 * MICRO;
+		assert stats.getMeanNanos() == 20 * MICRO;
+		assert stats.getMaxNanos() == 30 * MICRO;
+		
+		stats.reset();
+		
+		assert stats.getCount() == 0;
+		assert stats.getMeanNanos() == 0;
+		assert stats.getMaxNanos() == 0;
+		assert stats.getPercentileMicros(50) == 0;
+	}
+}
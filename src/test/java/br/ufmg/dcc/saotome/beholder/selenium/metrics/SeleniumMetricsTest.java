@@ -0,0 +1,85 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.metrics;
+
+import org.testng.annotations.Test;
+
+/**
+ * Tests the CSV and JSON formats of the metrics. The latencies depend on the clock, so only the
+ * layout and the counters are checked.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ */
+public class SeleniumMetricsTest {
+
+	private static SeleniumMetrics metrics() {
+		
+		SeleniumMetrics metrics = SeleniumMetrics.getInstance();
+		metrics.reset();
+		metrics.record(Command.GET, System.nanoTime());
+		metrics.record(Command.FIND_ELEMENT, System.nanoTime());
+		metrics.record(Command.FIND_ELEMENT, System.nanoTime());
+		metrics.commandSaved();
+		metrics.staleRecovered();
+		metrics.staleRecovered();
+		return metrics;
+	}
+	
+	@Test
+	public void csvHasAHeaderAndALinePerCommandExecuted() {
+		
+		String csv = metrics().toCsv();
+		SeleniumMetrics.getInstance().reset();
+		
+		assert csv.indexOf('\r') < 0;
+		assert csv.endsWith("\n");
+		String[] lines = csv.split("\n");
+		assert lines.length == 3 : csv;
+		assert lines[0].equals("command,count,total_ms,mean_ms,max_ms,p50_ms,p90_ms,p99_ms");
+		assert lines[1].startsWith("GET,1,") : lines[1];
+		assert lines[2].startsWith("FIND_ELEMENT,2,") : lines[2];
+		for (String line : lines) {
+			assert line.split(",").length == 8 : line;
+		}
+	}
+	
+	@Test
+	public void jsonHasTheCountersAndAnObjectPerCommandExecuted() {
+		
+		String json = metrics().toJson();
+		SeleniumMetrics.getInstance().reset();
+		
+		assert json.indexOf('\r') < 0;
+		assert json.startsWith("{\n  \"savedCommands\": 1,\n  \"staleRecoveries\": 2,\n  \"commands\": [\n") : json;
+		assert json.endsWith("\n  ]\n}\n") : json;
+		assert json.contains("{\"command\": \"GET\", \"count\": 1, ");
+		assert json.contains("},\n    {\"command\": \"FIND_ELEMENT\", \"count\": 2, ");
+	}
+	
+	@Test
+	public void metricsWithoutCommandsHaveNoCommandLines() {
+		
+		SeleniumMetrics metrics = SeleniumMetrics.getInstance();
+		metrics.reset();
+		
+		assert metrics.toCsv().equals("command,count,total_ms,mean_ms,max_ms,p50_ms,p90_ms,p99_ms\n");
+		assert metrics.toJson().equals("{\n  \"savedCommands\": 0,\n  \"staleRecoveries\": 0,\n  \"commands\": [\n  ]\n}\n");
+	}
+}
@@ -0,0 +1,129 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.ui.form;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import br.ufmg.dcc.saotome.beholder.ui.form.Select.Option;
+
+/**
+ * Tests the index of the options of a select, without a browser.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ */
+public class OptionCatalogueTest {
+
+	private static Option option(final int index, final String value, final String text) {
+		Option option = new Option();
+		option.setIndex(index);
+		option.setValue(value);
+		option.setText(text);
+		return option;
+	}
+	
+	private static OptionCatalogue catalogue(final String... texts) {
+		List<Option> options = new ArrayList<Option>(texts.length);
+		for (int index = 0; index < texts.length; index++) {
+			options.add(option(index, "v" + index, texts[index]));
+		}
+		return new OptionCatalogue(7, null, options);
+	}
+	
+	@Test
+	public void textsMatchIgnoringTheCase() {
+		
+		OptionCatalogue options = catalogue("Belo Horizonte", "São Paulo");
+		
+		assert options.findByText("belo horizonte") == 0;
+		assert options.findByText("SÃO PAULO") == 1;
+		assert options.findByText("Sao Paulo") == -1;
+	}
+	
+	@Test
+	public void foldingAgreesWithEqualsIgnoreCase() {
+		
+		// dotted capital I, dotless small i, long s and the Kelvin sign
+		String[][] pairs = {{"\u0130", "i"}, {"\u0131", "I"}, {"\u017f", "S"}, {"\u212a", "k"}, {"\u00df", "SS"}};
+		
+		for (String[] pair : pairs) {
+			int position = catalogue(pair[0]).findByText(pair[1]);
+			assert (position == 0) == pair[0].equalsIgnoreCase(pair[1]) : pair[0] + " / " + pair[1];
+		}
+	}
+	
+	@Test
+	public void valuesMatchIgnoringTheCase() {
+		
+		OptionCatalogue options = catalogue("one", "two");
+		
+		assert options.findByValue("V1") == 1;
+		assert options.findByValue("v2") == -1;
+	}
+	
+	@Test
+	public void firstOptionOfARepeatedTextWins() {
+		
+		OptionCatalogue options = catalogue("Yes", "No", "YES");
+		
+		assert options.findByText("yes") == 0;
+		assert options.get(2).getText().equals("YES");
+	}
+	
+	@Test
+	public void nullTextsAreSkippedAndEmptyTextsIndexed() {
+		
+		List<Option> options = new ArrayList<Option>();
+		options.add(option(0, null, null));
+		options.add(option(1, "", ""));
+		OptionCatalogue catalogue = new OptionCatalogue(-1, null, options);
+		
+		assert catalogue.findByText("") == 1;
+		assert catalogue.findByValue("") == 1;
+	}
+	
+	@Test
+	public void indexesMatchExactly() {
+		
+		List<Option> options = new ArrayList<Option>();
+		options.add(option(0, "a", "A"));
+		options.add(option(2, "c", "C"));
+		options.add(option(1, "b", "B"));
+		OptionCatalogue catalogue = new OptionCatalogue(-1, null, options);
+		
+		assert catalogue.findByIndex(0) == 0;
+		assert catalogue.findByIndex(1) == 2;
+		assert catalogue.findByIndex(2) == 1;
+		assert catalogue.findByIndex(3) == -1;
+		assert catalogue.findByIndex(-1) == -1;
+	}
+	
+	@Test
+	public void catalogueKeepsItsEpochAndOptions() {
+		
+		OptionCatalogue options = catalogue("one", "two", "three");
+		
+		assert options.getEpoch() == 7;
+		assert options.size() == 3;
+		assert options.get(1).getValue().equals("v1");
+	}
+}
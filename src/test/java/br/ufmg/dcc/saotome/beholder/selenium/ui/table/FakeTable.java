@@ -0,0 +1,131 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.ui.table;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Table kept in memory by a driver that answers the scripts of the snapshots, so the classes
+ * that work with snapshots are tested without a browser. Each change of the texts changes the
+ * probe of the table, as a change in the browser would.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ */
+final class FakeTable implements InvocationHandler {
+
+	private List<List<String>> head = Collections.emptyList();
+	private List<List<String>> body = Collections.emptyList();
+	private int version;
+	private int scripts;
+	
+	private final WebDriver driver = (WebDriver) Proxy.newProxyInstance(WebDriver.class.getClassLoader(),
+			new Class<?>[] {WebDriver.class, JavascriptExecutor.class}, this);
+	
+	private final WebElement element = (WebElement) Proxy.newProxyInstance(WebElement.class.getClassLoader(),
+			new Class<?>[] {WebElement.class}, this);
+	
+	/**
+	 * @param lines texts of the head lines
+	 * @return this table
+	 */
+	FakeTable head(final String[]... lines) {
+		this.head = toLines(lines);
+		this.version++;
+		return this;
+	}
+	
+	/**
+	 * @param lines texts of the body lines
+	 * @return this table
+	 */
+	FakeTable body(final String[]... lines) {
+		this.body = toLines(lines);
+		this.version++;
+		return this;
+	}
+	
+	/**
+	 * @return a snapshot read from this table
+	 */
+	TableSnapshot snapshot() {
+		return new TableSnapshot(this.driver, this.element);
+	}
+	
+	/**
+	 * @return number of scripts run since the table was created
+	 */
+	int getScriptCount() {
+		return this.scripts;
+	}
+	
+	private static List<List<String>> toLines(final String[]... lines) {
+		List<List<String>> texts = new ArrayList<List<String>>(lines.length);
+		for (String[] line : lines) {
+			texts.add(Arrays.asList(line));
+		}
+		return texts;
+	}
+	
+	private static Map<String, Object> part(final List<List<String>> texts) {
+		Map<String, Object> part = new HashMap<String, Object>();
+		part.put("texts", texts);
+		part.put("attributes", Collections.emptyList());
+		return part;
+	}
+	
+	@Override
+	public Object invoke(final Object proxy, final Method method, final Object[] args) {
+		
+		if (method.getName().equals("equals")) {
+			return Boolean.valueOf(proxy == args[0]);
+		}
+		if (method.getName().equals("hashCode")) {
+			return Integer.valueOf(System.identityHashCode(proxy));
+		}
+		if (!method.getName().equals("executeScript")) {
+			return null;
+		}
+		
+		this.scripts++;
+		List<Object> probe = Arrays.<Object>asList(Integer.valueOf(this.version));
+		if (!((String) args[0]).contains("HEAD: part(")) {
+			return probe;
+		}
+		
+		Map<String, Object> result = new HashMap<String, Object>();
+		result.put("probe", probe);
+		result.put("HEAD", part(this.head));
+		result.put("BODY", part(this.body));
+		result.put("FOOT", part(Collections.<List<String>>emptyList()));
+		return result;
+	}
+}
@@ -0,0 +1,143 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.ui.table;
+
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import br.ufmg.dcc.saotome.beholder.ui.table.Cell;
+
+/**
+ * Tests the hash index of table snapshots, with a table kept in memory.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ */
+public class TableIndexTest {
+
+	private static FakeTable table() {
+		return new FakeTable().body(
+				new String[] {"1", "Ana", "BH"},
+				new String[] {"2", "Bruno", "RJ"},
+				new String[] {"3", "Ana", "RJ"},
+				new String[] {"4"},
+				new String[] {"5", "Ana", "BH"});
+	}
+	
+	private static int line(final List<Cell> cells) {
+		return cells.get(0).getCoordinate().getLineIndex().intValue();
+	}
+	
+	@Test
+	public void linesOfAKeyAreReturnedInOrder() {
+		
+		List<List<Cell>> lines = table().snapshot().createIndex(2).getLines("Ana");
+		
+		assert lines.size() == 3;
+		assert line(lines.get(0)) == 1;
+		assert line(lines.get(1)) == 3;
+		assert line(lines.get(2)) == 5;
+		assert lines.get(2).get(2).getText().equals("BH");
+	}
+	
+	@Test
+	public void keyOfSeveralColumns() {
+		
+		TableIndex index = table().snapshot().createIndex(2, 3);
+		
+		assert index.getLines("Ana", "BH").size() == 2;
+		assert line(index.getLine("Ana", "RJ")) == 3;
+		assert index.getLine("Bruno", "BH") == null;
+	}
+	
+	@Test
+	public void missingKeyFindsNothing() {
+		
+		TableIndex index = table().snapshot().createIndex(2);
+		
+		assert index.getLines("Carla").isEmpty();
+		assert index.getLine("Carla") == null;
+	}
+	
+	@Test
+	public void linesWithoutTheKeyColumnsAreNotIndexed() {
+		
+		TableIndex index = table().snapshot().createIndex(1, 2);
+		
+		assert index.getLines("4", "").isEmpty();
+		assert line(index.getLine("5", "Ana")) == 5;
+	}
+	
+	@Test
+	public void manyLinesOfTheSameKeyAreAllKept() {
+		
+		String[][] lines = new String[1000][];
+		for (int line = 0; line < lines.length; line++) {
+			lines[line] = new String[] {String.valueOf(line % 3)};
+		}
+		TableIndex index = new FakeTable().body(lines).snapshot().createIndex(1);
+		
+		List<List<Cell>> found = index.getLines("1");
+		assert found.size() == 333;
+		for (int position = 0; position < found.size(); position++) {
+			assert line(found.get(position)) == position * 3 + 2;
+		}
+	}
+	
+	@Test
+	public void indexIsRebuiltWhenTheTableChanges() {
+		
+		FakeTable table = table();
+		TableIndex index = table.snapshot().createIndex(2);
+		
+		table.body(new String[] {"6", "Carla", "SP"});
+		
+		assert line(index.getLine("Carla")) == 1;
+		assert index.getLines("Ana").isEmpty();
+	}
+	
+	@Test
+	public void unchangedTableCostsOneProbeBySearch() {
+		
+		FakeTable table = table();
+		TableIndex index = table.snapshot().createIndex(2);
+		int scripts = table.getScriptCount();
+		
+		index.getLines("Ana");
+		index.getLines("Bruno");
+		
+		assert table.getScriptCount() == scripts + 2;
+	}
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void keyMustHaveATextForEachColumn() {
+		table().snapshot().createIndex(2, 3).getLines("Ana");
+	}
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void indexNeedsColumns() {
+		table().snapshot().createIndex();
+	}
+	
+	@Test(expectedExceptions = IndexOutOfBoundsException.class)
+	public void columnsStartAtOne() {
+		table().snapshot().createIndex(0);
+	}
+}
@@ -0,0 +1,176 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.ui.table;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import br.ufmg.dcc.saotome.beholder.selenium.ui.table.SeleniumCell.CellType;
+import br.ufmg.dcc.saotome.beholder.ui.table.Cell;
+import br.ufmg.dcc.saotome.beholder.ui.table.Cell.Coordinate;
+
+/**
+ * Compares the columnar table model with the transposition that SeleniumTable used before,
+ * which keyed every cell by column * 100000 + line in a HashMap and sorted the boxed keys.
+ * Both benchmarks start from the texts of the lines, as read by the snapshot script, and
+ * read every cell of the table by columns. The tables have 10 columns.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TableModelBenchmark {
+
+	private static final int COLUMNS = 10;
+	
+	@Param({"1000", "100000", "1000000"})
+	private int cells;
+	
+	private List<List<String>> lines;
+	
+	@Setup
+	public void setUp() {
+		this.lines = new ArrayList<List<String>>();
+		for (int line = 0; line < this.cells / COLUMNS; line++) {
+			List<String> values = new ArrayList<String>(COLUMNS);
+			for (int column = 0; column < COLUMNS; column++) {
+				values.add(line + ":" + column);
+			}
+			this.lines.add(values);
+		}
+	}
+	
+	@Benchmark
+	public void columnarModel(final Blackhole blackhole) {
+		TableModel model = new TableModel(this.lines);
+		for (int column = 0; column < model.getColumnCount(); column++) {
+			List<String> values = model.getColumnValues(column);
+			for (int position = 0; position < values.size(); position++) {
+				blackhole.consume(new SeleniumCell(null, new Coordinate(model.getLine(column, position) + 1, column + 1),
+						CellType.BODY, values.get(position)));
+			}
+		}
+	}
+	
+	@Benchmark
+	public void splitFactorTranspose(final Blackhole blackhole) {
+		for (List<Cell> column : legacyTranspose(legacyCellsByLine())) {
+			for (Cell cell : column) {
+				blackhole.consume(cell);
+			}
+		}
+	}
+	
+	/** Cells by line, as SeleniumTable created them before transposing. */
+	private List<List<Cell>> legacyCellsByLine() {
+		List<List<Cell>> cellLines = new ArrayList<List<Cell>>();
+		Integer lineIndex = 1;
+		for (List<String> line : this.lines) {
+			List<Cell> cellColumns = new ArrayList<Cell>();
+			Integer columnIndex = 1;
+			for (String text : line) {
+				cellColumns.add(new SeleniumCell(null, new Coordinate(lineIndex, columnIndex), CellType.BODY, text));
+				columnIndex++;
+			}
+			cellLines.add(cellColumns);
+			lineIndex++;
+		}
+		return cellLines;
+	}
+	
+	/** Transposition used by SeleniumTable.getAllCellsByColumn before the columnar model. */
+	private static List<List<Cell>> legacyTranspose(final List<List<Cell>> orderByLines) {
+		
+		final Integer splitFactor = 100000; 
+		
+		Map<Integer, Cell> plainList = new HashMap<Integer, Cell>();
+		List<Integer> keys = new ArrayList<Integer>(); 
+		
+		Integer lineIndex = 1;
+		Integer columnIndex;
+		for (List<Cell> line : orderByLines) {
+			columnIndex = 1;
+			for (Cell cell : line) {
+				Integer coordinates = (columnIndex * splitFactor) + lineIndex;
+				plainList.put(coordinates, cell);
+				keys.add(coordinates);
+				columnIndex++;
+			}
+			lineIndex++;
+		}
+		
+		Collections.sort(keys);
+		
+		Integer currentColumn = 1;
+		
+		List<List<Cell>> lines = new ArrayList<List<Cell>>();
+		List<Cell> columns = new ArrayList<Cell>();
+		
+		for (Integer coordinate : keys) {
+			lineIndex = coordinate % splitFactor;			
+			columnIndex = coordinate / splitFactor;
+			
+			if (!currentColumn.equals(columnIndex)) {
+				currentColumn=columnIndex;
+				lines.add(columns);
+				columns = new ArrayList<Cell>();
+			}
+			
+			Cell cell = plainList.get(coordinate);
+			cell.setCoordinates(lineIndex, columnIndex);
+			columns.add(cell);
+		}
+		lines.add(columns);
+		
+		return lines;
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(TableModelBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+}
@@ -0,0 +1,148 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.ui.table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+/**
+ * Tests the columnar storage of the table parts, without a browser.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ */
+public class TableModelTest {
+
+	/** Lines of 3, 1, 0, 2 and 3 cells */
+	private static TableModel ragged() {
+		List<List<String>> lines = new ArrayList<List<String>>();
+		lines.add(Arrays.asList("a1", "a2", "a3"));
+		lines.add(Arrays.asList("b1"));
+		lines.add(Collections.<String>emptyList());
+		lines.add(Arrays.asList("d1", "d2"));
+		lines.add(Arrays.asList("e1", "e2", "e3"));
+		return new TableModel(lines);
+	}
+	
+	@Test
+	public void raggedColumnsKeepOnlyTheLinesThatReachThem() {
+		
+		TableModel model = ragged();
+		
+		assert model.getLineCount() == 5;
+		assert model.getColumnCount() == 3;
+		assert model.getLineWidth(1) == 1;
+		assert model.getLineWidth(2) == 0;
+		assert model.getColumnHeight(0) == 4;
+		assert model.getColumnHeight(1) == 3;
+		assert model.getColumnHeight(2) == 2;
+		
+		assert model.getColumnValues(1).equals(Arrays.asList("a2", "d2", "e2"));
+		assert model.getColumnValues(2).equals(Arrays.asList("a3", "e3"));
+	}
+	
+	@Test
+	public void linesOfRaggedColumnsAreFoundByPosition() {
+		
+		TableModel model = ragged();
+		
+		// the first column skips the empty line
+		assert model.getLine(0, 0) == 0;
+		assert model.getLine(0, 1) == 1;
+		assert model.getLine(0, 2) == 3;
+		assert model.getLine(0, 3) == 4;
+		assert model.getLine(2, 1) == 4;
+	}
+	
+	@Test
+	public void cellsOfRaggedColumnsAreFoundByLine() {
+		
+		TableModel model = ragged();
+		
+		assert "a1".equals(model.get(0, 0));
+		assert "b1".equals(model.get(1, 0));
+		assert "d2".equals(model.get(3, 1));
+		assert "e3".equals(model.get(4, 2));
+	}
+	
+	@Test(expectedExceptions = IndexOutOfBoundsException.class)
+	public void cellBeyondTheWidthOfItsLineDoesNotExist() {
+		ragged().get(1, 1);
+	}
+	
+	@Test
+	public void singleColumnIsStoredWithoutLines() {
+		
+		TableModel model = new TableModel(Arrays.asList(Arrays.asList("x"), Arrays.asList("y"), Arrays.asList("z")));
+		
+		assert model.getColumnCount() == 1;
+		assert model.getColumnHeight(0) == 3;
+		assert model.getLine(0, 2) == 2;
+		assert model.get(1, 0).equals("y");
+		assert model.getColumnValues(0).equals(Arrays.asList("x", "y", "z"));
+	}
+	
+	@Test
+	public void emptyPartHasNoLinesNorColumns() {
+		
+		TableModel model = new TableModel(Collections.<List<String>>emptyList());
+		
+		assert model.getLineCount() == 0;
+		assert model.getColumnCount() == 0;
+	}
+	
+	@Test
+	public void partWithEmptyLinesHasNoColumns() {
+		
+		List<String> empty = Collections.emptyList();
+		TableModel model = new TableModel(Arrays.asList(empty, empty));
+		
+		assert model.getLineCount() == 2;
+		assert model.getColumnCount() == 0;
+		assert model.getLineValues(1).isEmpty();
+	}
+	
+	@Test
+	public void lineViewReadsTheColumns() {
+		
+		List<String> line = ragged().getLineValues(3);
+		
+		assert line.size() == 2;
+		assert line.equals(Arrays.asList("d1", "d2"));
+	}
+	
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void lineViewIsReadOnly() {
+		ragged().getLineValues(0).set(0, "changed");
+	}
+	
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void columnViewIsReadOnly() {
+		ragged().getColumnValues(0).set(0, "changed");
+	}
+	
+	@Test(expectedExceptions = IndexOutOfBoundsException.class)
+	public void lineViewOfMissingLineDoesNotExist() {
+		ragged().getLineValues(5);
+	}
+}
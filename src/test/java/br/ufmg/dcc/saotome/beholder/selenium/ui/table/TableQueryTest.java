@@ -0,0 +1,121 @@
+/*  Copyright 2014 Ícaro Clever da Fonseca Braga
+
+	Licensed to the Apache Software Foundation (ASF) under one
+	or more contributor license agreements.  See the NOTICE file
+	distributed with this work for additional information
+	regarding copyright ownership.  The ASF licenses this file
+	to you under the Apache License, Version 2.0 (the
+	"License"); you may not use this file except in compliance
+	with the License.  You may obtain a copy of the License at
+	
+	  http://www.apache.org/licenses/LICENSE-2.0
+	
+	Unless required by applicable law or agreed to in writing,
+	software distributed under the License is distributed on an
+	"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+	KIND, either express or implied.  See the License for the
+	specific language governing permissions and limitations
+	under the License.
+ */
+package br.ufmg.dcc.saotome.beholder.selenium.ui.table;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import br.ufmg.dcc.saotome.beholder.ui.table.Cell;
+
+/**
+ * Tests the evaluation of table queries in Java, with snapshots read from a table kept in memory.
+ * 
+ * @author Ícaro Clever F. Braga (icaroclever@gmail.com)
+ */
+public class TableQueryTest {
+
+	private static TableSnapshot table() {
+		return new FakeTable()
+				.head(new String[] {"Name", "City", "Price"})
+				.body(new String[] {"Ana", "Belo Horizonte", "R$ 10.50"},
+						new String[] {"Bruno", "Rio de Janeiro", "R$ 7"},
+						new String[] {"Carla", "Belo Horizonte", "free"},
+						new String[] {"Davi"},
+						new String[] {"Eva", "Salvador", "-3"})
+				.snapshot();
+	}
+	
+	/** First texts of the lines selected */
+	private static List<String> names(final List<List<Cell>> lines) {
+		List<String> names = new ArrayList<String>(lines.size());
+		for (List<Cell> line : lines) {
+			names.add(line.get(0).getText());
+		}
+		return names;
+	}
+	
+	@Test
+	public void equalsSelectsTheWholeText() {
+		assert names(new TableQuery().whereEquals(2, "Belo Horizonte").select(table())).toString().equals("[Ana, Carla]");
+		assert new TableQuery().whereEquals(2, "Belo").select(table()).isEmpty();
+	}
+	
+	@Test
+	public void columnIsFoundByItsHeadText() {
+		assert names(new TableQuery().whereEquals("City", "Salvador").select(table())).toString().equals("[Eva]");
+	}
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void unknownHeadTextIsRejected() {
+		new TableQuery().whereEquals("Country", "Brazil").select(table());
+	}
+	
+	@Test(expectedExceptions = IndexOutOfBoundsException.class)
+	public void columnsStartAtOne() {
+		new TableQuery().whereEquals(0, "Ana");
+	}
+	
+	@Test
+	public void containsSelectsPartOfTheText() {
+		assert names(new TableQuery().whereContains(2, "de").select(table())).toString().equals("[Bruno]");
+	}
+	
+	@Test
+	public void matchesSelectsAnyPartMatched() {
+		assert names(new TableQuery().whereMatches(1, "a$").select(table())).toString().equals("[Ana, Carla, Eva]");
+		assert names(new TableQuery().whereMatches(1, "^[BD]").select(table())).toString().equals("[Bruno, Davi]");
+	}
+	
+	@Test
+	public void betweenIncludesTheLimitsAndSkipsTextsWithoutNumber() {
+		assert names(new TableQuery().whereBetween("Price", 7, 10.5).select(table())).toString().equals("[Ana, Bruno]");
+		assert names(new TableQuery().whereBetween(3, -5, 0).select(table())).toString().equals("[Eva]");
+	}
+	
+	@Test
+	public void linesWithoutTheColumnAreNotSelected() {
+		assert new TableQuery().whereMatches(2, ".*").select(table()).size() == 4;
+	}
+	
+	@Test
+	public void allConditionsMustBeSatisfied() {
+		List<List<Cell>> lines = new TableQuery().whereEquals("City", "Belo Horizonte").whereBetween(3, 0, 100).select(table());
+		
+		assert names(lines).toString().equals("[Ana]");
+		assert lines.get(0).get(2).getText().equals("R$ 10.50");
+		assert lines.get(0).get(2).getCoordinate().getLineIndex().intValue() == 1;
+		assert lines.get(0).get(2).getCoordinate().getColumnIndex().intValue() == 3;
+	}
+	
+	@Test
+	public void queryWithoutConditionsSelectsAllLines() {
+		assert new TableQuery().select(table()).size() == 5;
+	}
+	
+	@Test
+	public void numberIgnoresAllButDigitsPointsAndMinus() {
+		assert TableQuery.number("R$ 1234.5") == 1234.5;
+		assert TableQuery.number("-2 items") == -2;
+		assert Double.isNaN(TableQuery.number("free"));
+		assert Double.isNaN(TableQuery.number("1.2.3"));
+	}
+}